@@ -2,6 +2,7 @@ package com.eotieno.auto.booking.config;
 
 
 import com.eotieno.auto.booking.service.UserServiceClient;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +15,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -49,8 +51,10 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             try {
                 String token = authHeader.substring(7);
-                if (jwtTokenUtil.isTokenValid(token)) {
-                    String username = jwtTokenUtil.extractUsername(token);
+                // One verification per request, answered from the verifier's cache for repeat tokens
+                Optional<Claims> claims = jwtTokenUtil.validClaims(token);
+                if (claims.isPresent()) {
+                    String username = claims.get().getSubject();
 
                     UserDetails userDetails = new org.springframework.security.core.userdetails.User(
                             username, "", java.util.List.of()
@@ -2,14 +2,13 @@ package com.eotieno.auto.booking.config;
 
 
 import com.eotieno.auto.booking.exceptions.JwtTokenException;
+import com.eotieno.auto.jwt.JwtVerifier;
 import io.jsonwebtoken.*;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.SecretKey;
-import java.util.Date;
+import java.util.Optional;
 
 @Component
 public class JwtTokenUtil {
@@ -20,26 +19,37 @@ public class JwtTokenUtil {
     @Value("${jwt.expiration}")
     private Long expiration;
 
-    public Long getUserIdFromToken(String token) {
-        String userId = extractAllClaims(token).get("userId", String.class);
+    @Value("${jwt.verified-token-cache-size:10000}")
+    private long verifiedTokenCacheSize;
+
+    // Key decoded and parser built once; recently verified tokens are served from its cache
+    private JwtVerifier jwtVerifier;
 
-        return Long.parseLong(userId);
+    @PostConstruct
+    void init() {
+        jwtVerifier = new JwtVerifier(secret, verifiedTokenCacheSize);
+    }
+
+    public Long getUserIdFromToken(String token) {
+        return JwtVerifier.userId(extractAllClaims(token));
     }
 
 
     public boolean isTokenValid(String token) {
-        try {
-            Claims claims = extractAllClaims(token);
-            return !claims.getExpiration().before(new Date());
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
-        }
+        return jwtVerifier.validClaims(token).isPresent();
+    }
+
+    /**
+     * Claims of a valid, unexpired token; empty instead of an exception when it is not
+     */
+    public Optional<Claims> validClaims(String token) {
+        return jwtVerifier.validClaims(token);
     }
 
     // Validate token
     public Boolean validateToken(String token, String userName) {
         final String username = extractUsername(token);
-        return (username.equals(userName) && !isTokenExpired(token));
+        return (username.equals(userName) && !jwtVerifier.isExpired(extractAllClaims(token)));
     }
 
     // Extract username from token
@@ -61,11 +71,7 @@ public class JwtTokenUtil {
 
     public Claims extractAllClaims(String token) {
         try {
-            return Jwts.parser()
-                    .verifyWith(getSignInKey())
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return jwtVerifier.verify(token);
         } catch (ExpiredJwtException ex) {
             throw new JwtTokenException("Token expired - but here are the claims: " + ex.getClaims());
         } catch (MalformedJwtException ex) {
@@ -78,14 +84,4 @@ public class JwtTokenUtil {
             throw new JwtTokenException("Failed to process JWT token");
         }
     }
-
-    private Boolean isTokenExpired(String token) {
-        Claims claims = extractAllClaims(token);
-        return !claims.getExpiration().before(new Date());
-    }
-
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
-    }
 }
\ No newline at end of file
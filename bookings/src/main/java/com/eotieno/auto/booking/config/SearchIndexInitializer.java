@@ -0,0 +1,35 @@
+package com.eotieno.auto.booking.config;
+
+import com.eotieno.auto.booking.repository.BookingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Creates the trigram index behind appointment search, which Hibernate's ddl-auto cannot express.
+ * btree_gin lets the mechanic id live in the same GIN index, so one index scan serves the whole search.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchIndexInitializer {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void createSearchIndex() {
+        try {
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            jdbcTemplate.execute("CREATE EXTENSION IF NOT EXISTS btree_gin");
+            jdbcTemplate.execute("CREATE INDEX IF NOT EXISTS idx_bookings_search_trgm ON bookings " +
+                    "USING gin (service_provider_id, (" + BookingRepository.SEARCH_DOCUMENT + ") gin_trgm_ops)");
+            log.info("Appointment search index is in place");
+        } catch (Exception e) {
+            // Search still works without the index, just with a scan of the mechanic's bookings
+            log.warn("Could not create appointment search index: {}", e.getMessage());
+        }
+    }
+}
@@ -31,6 +31,7 @@ public class SecurityConfig {
                             corsConfiguration.setAllowedOrigins(List.of("http://localhost:4200"));
                             corsConfiguration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
                             corsConfiguration.setAllowedHeaders(List.of("*"));
+                            corsConfiguration.setExposedHeaders(List.of("X-Next-Cursor"));
                             corsConfiguration.setAllowCredentials(true);
                             return corsConfiguration;
                         })
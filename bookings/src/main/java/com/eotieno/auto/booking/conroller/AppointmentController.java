@@ -1,7 +1,10 @@
 package com.eotieno.auto.booking.conroller;
 
 import com.eotieno.auto.booking.dto.*;
+import com.eotieno.auto.booking.exceptions.BadRequestException;
 import com.eotieno.auto.booking.service.AppointmentService;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.format.annotation.DateTimeFormat;
@@ -9,15 +12,23 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/appointments")
 public class AppointmentController {
 
     private static final Logger log = LoggerFactory.getLogger(AppointmentController.class);
+    private static final int EXPORT_BUFFER_SIZE = 16 * 1024;
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final AppointmentService appointmentService;
 
     public AppointmentController(AppointmentService appointmentService) {
@@ -35,12 +46,22 @@ public class AppointmentController {
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
             @RequestParam(required = false) Integer limit,
-            @RequestParam(required = false) Integer offset) {
+            @RequestParam(required = false) Integer offset, // Older clients; prefer the cursor
+            @RequestParam(required = false) String cursor) {
 
         try {
-            List<AppointmentDto> appointments = appointmentService.getMechanicAppointments(
-                    mechanicId, status, dateFrom, dateTo, limit, offset);
-            return ResponseEntity.ok(appointments);
+            AppointmentPageDto page = appointmentService.getMechanicAppointments(
+                    mechanicId, status, dateFrom, dateTo, limit, offset, cursor);
+
+            // The cursor for the next page travels in a header so the body stays a plain list
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+            if (page.getNextCursor() != null) {
+                response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+            }
+            return response.body(page.getAppointments());
+        } catch (BadRequestException e) {
+            log.warn("Bad appointments request for mechanic {}: {}", mechanicId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error fetching appointments for mechanic {}: {}", mechanicId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -224,6 +245,24 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Rebuild the stats rollup for a mechanic from the bookings table
+     * POST /api/bookings/appointments/mechanic/{mechanicId}/stats/rebuild
+     */
+    @PostMapping("/mechanic/{mechanicId}/stats/rebuild")
+    public ResponseEntity<AppointmentStatsDto> rebuildMechanicAppointmentStats(
+            @PathVariable String mechanicId,
+            @RequestParam(required = false, defaultValue = "week") String period) {
+
+        try {
+            AppointmentStatsDto stats = appointmentService.rebuildMechanicAppointmentStats(mechanicId, period);
+            return ResponseEntity.ok(stats);
+        } catch (Exception e) {
+            log.error("Error rebuilding stats for mechanic {}: {}", mechanicId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Search appointments
      * GET /api/bookings/appointments/mechanic/{mechanicId}/search
@@ -231,11 +270,16 @@ public class AppointmentController {
     @GetMapping("/mechanic/{mechanicId}/search")
     public ResponseEntity<List<AppointmentDto>> searchAppointments(
             @PathVariable String mechanicId,
-            @RequestParam String search) {
+            @RequestParam String search,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size) {
 
         try {
-            List<AppointmentDto> appointments = appointmentService.searchAppointments(mechanicId, search);
+            List<AppointmentDto> appointments = appointmentService.searchAppointments(mechanicId, search, page, size);
             return ResponseEntity.ok(appointments);
+        } catch (BadRequestException e) {
+            log.warn("Bad appointment search for mechanic {}: {}", mechanicId, e.getMessage());
+            return ResponseEntity.badRequest().build();
         } catch (Exception e) {
             log.error("Error searching appointments for mechanic {}: {}", mechanicId, e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -249,10 +293,11 @@ public class AppointmentController {
     @GetMapping("/mechanic/{mechanicId}/available-slots")
     public ResponseEntity<List<String>> getAvailableTimeSlots(
             @PathVariable String mechanicId,
-            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestParam(required = false) Integer duration) {
 
         try {
-            List<String> availableSlots = appointmentService.getAvailableTimeSlots(mechanicId, date);
+            List<String> availableSlots = appointmentService.getAvailableTimeSlots(mechanicId, date, duration);
             return ResponseEntity.ok(availableSlots);
         } catch (Exception e) {
             log.error("Error fetching available slots for mechanic {} on {}: {}", mechanicId, date, e.getMessage());
@@ -260,6 +305,29 @@ public class AppointmentController {
         }
     }
 
+    /**
+     * Get available time slots for a date range
+     * GET /api/bookings/appointments/mechanic/{mechanicId}/available-slots/range
+     */
+    @GetMapping("/mechanic/{mechanicId}/available-slots/range")
+    public ResponseEntity<Map<LocalDate, List<String>>> getAvailableTimeSlotsForRange(
+            @PathVariable String mechanicId,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
+            @RequestParam(required = false) Integer duration) {
+
+        try {
+            return ResponseEntity.ok(appointmentService.getAvailableTimeSlots(mechanicId, dateFrom, dateTo, duration));
+        } catch (IllegalArgumentException e) {
+            log.warn("Bad slot range for mechanic {}: {}", mechanicId, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        } catch (Exception e) {
+            log.error("Error fetching available slots for mechanic {} from {} to {}: {}",
+                    mechanicId, dateFrom, dateTo, e.getMessage());
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * Get vehicle appointment history
      * GET /api/bookings/appointments/vehicle/{vehicleId}/history
@@ -323,33 +391,13 @@ public class AppointmentController {
      * PATCH /api/bookings/appointments/bulk/status
      */
     @PatchMapping("/bulk/status")
-    public ResponseEntity<Map<String, Object>> bulkUpdateAppointmentStatus(
-            @RequestBody Map<String, Object> bulkUpdate) {
+    public ResponseEntity<BulkStatusUpdateResultDto> bulkUpdateAppointmentStatus(
+            @Valid @RequestBody BulkStatusUpdateDto bulkUpdate) {
 
         try {
-            @SuppressWarnings("unchecked")
-            List<Long> appointmentIds = (List<Long>) bulkUpdate.get("appointmentIds");
-            AppointmentStatus status = AppointmentStatus.valueOf((String) bulkUpdate.get("status"));
-
-            int updated = 0;
-            List<String> failed = List.of(); // Implementation would track failed updates
-
-            for (Long appointmentId : appointmentIds) {
-                try {
-                    appointmentService.updateAppointmentStatus(appointmentId, status);
-                    updated++;
-                } catch (Exception e) {
-                    log.error("Failed to update appointment {}: {}", appointmentId, e.getMessage());
-                    // Add to failed list
-                }
-            }
-
-            Map<String, Object> response = Map.of(
-                    "updated", updated,
-                    "failed", failed
-            );
-
-            return ResponseEntity.ok(response);
+            BulkStatusUpdateResultDto result = appointmentService.bulkUpdateAppointmentStatus(
+                    bulkUpdate.getAppointmentIds(), bulkUpdate.getStatus());
+            return ResponseEntity.ok(result);
         } catch (Exception e) {
             log.error("Error in bulk status update: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -361,47 +409,40 @@ public class AppointmentController {
      * GET /api/bookings/appointments/mechanic/{mechanicId}/export
      */
     @GetMapping("/mechanic/{mechanicId}/export")
-    public ResponseEntity<byte[]> exportAppointments(
+    public void exportAppointments(
             @PathVariable String mechanicId,
             @RequestParam(defaultValue = "csv") String format,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateFrom,
             @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate dateTo,
-            @RequestParam(required = false) AppointmentStatus status) {
+            @RequestParam(required = false) AppointmentStatus status,
+            @RequestParam(defaultValue = "false") boolean gzip,
+            HttpServletResponse response) {
 
         try {
-            // Get appointments with filters
-            List<AppointmentDto> appointments = appointmentService.getMechanicAppointments(
-                    mechanicId, status, dateFrom, dateTo, null, null);
-
-            // Generate CSV content (simplified implementation)
-            StringBuilder csv = new StringBuilder();
-            csv.append("Date,Time,Status,Customer,Phone,Vehicle,Issue,Duration\n");
-
-            for (AppointmentDto appointment : appointments) {
-                csv.append(String.format("%s,%s,%s,%s,%s,%s,%s,%s\n",
-                        appointment.getPreferredDate().toLocalDate(),
-                        appointment.getPreferredTime(),
-                        appointment.getStatus(),
-                        appointment.getCustomerDetails() != null ? appointment.getCustomerDetails().getName() : "N/A",
-                        appointment.getCustomerDetails() != null ? appointment.getCustomerDetails().getPhone() : "N/A",
-                        appointment.getVehicleId(),
-                        appointment.getIssueDescription().replaceAll(",", ";").substring(0,
-                                Math.min(50, appointment.getIssueDescription().length())),
-                        appointment.getEstimatedDuration() != null ? appointment.getEstimatedDuration() + " min" : "N/A"
-                ));
+            // Rows are written to the response as they are read, nothing is buffered in full
+            if (gzip) {
+                response.setContentType("application/gzip");
+                response.setHeader("Content-Disposition", "attachment; filename=\"appointments.csv.gz\"");
+            } else {
+                response.setContentType("text/csv");
+                response.setHeader("Content-Disposition", "attachment; filename=\"appointments.csv\"");
             }
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
 
-            byte[] csvBytes = csv.toString().getBytes();
+            OutputStream out = gzip
+                    ? new GZIPOutputStream(response.getOutputStream(), EXPORT_BUFFER_SIZE)
+                    : response.getOutputStream();
 
-            return ResponseEntity.ok()
-                    .header("Content-Disposition", "attachment; filename=\"appointments.csv\"")
-                    .header("Content-Type", "text/csv")
-                    .body(csvBytes);
+            try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), EXPORT_BUFFER_SIZE)) {
+                appointmentService.exportAppointmentsCsv(mechanicId, status, dateFrom, dateTo, writer);
+            }
 
         } catch (Exception e) {
             log.error("Error exporting appointments for mechanic {}: {}", mechanicId, e.getMessage());
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+            if (!response.isCommitted()) {
+                response.reset();
+                response.setStatus(HttpStatus.INTERNAL_SERVER_ERROR.value());
+            }
         }
     }
 }
-
@@ -1,28 +1,27 @@
 package com.eotieno.auto.booking.conroller;
 
-import com.eotieno.auto.booking.dto.LocationDTO;
 import com.eotieno.auto.booking.dto.ServiceRecordDto;
-import com.eotieno.auto.booking.dto.UserDto;
 import com.eotieno.auto.booking.dto.serviceProvider.ServiceProviderDetailsDTO;
 import com.eotieno.auto.booking.entity.Booking;
 import com.eotieno.auto.booking.entity.BookingRequest;
 import com.eotieno.auto.booking.service.BookingService;
-import com.eotieno.auto.booking.service.UserServiceClient;
+import com.eotieno.auto.booking.service.ServiceProviderLookupService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/bookings")
 public class BookingController {
 
-    private final UserServiceClient userServiceClient;
+    private final ServiceProviderLookupService serviceProviderLookupService;
     private final BookingService bookingService;
 
-    public BookingController(UserServiceClient userServiceClient, BookingService bookingService) {
-        this.userServiceClient = userServiceClient;
+    public BookingController(ServiceProviderLookupService serviceProviderLookupService, BookingService bookingService) {
+        this.serviceProviderLookupService = serviceProviderLookupService;
         this.bookingService = bookingService;
     }
 
@@ -36,8 +35,12 @@ public class BookingController {
     public ResponseEntity<List<ServiceRecordDto>> getAllVehicleBookings(@PathVariable String vin) {
         List<Booking> bookings = bookingService.getBookingByVehicle(vin);
 
+        // Each distinct provider is looked up once for the whole response
+        Map<String, ServiceProviderDetailsDTO> providers = serviceProviderLookupService.getProviders(
+                bookings.stream().map(Booking::getServiceProviderId).toList());
+
         List<ServiceRecordDto> dtos = bookings.stream()
-                .map(this::mapToDto)
+                .map(booking -> mapToDto(booking, providers.get(booking.getServiceProviderId())))
                 .toList();
 
         return ResponseEntity.ok(dtos);
@@ -93,32 +96,7 @@ public class BookingController {
         return ResponseEntity.noContent().build();
     }
 
-    private ServiceRecordDto mapToDto(Booking booking) {
-        ServiceProviderDetailsDTO providerDto;
-
-        try {
-            // Attempt to fetch provider details from external service
-            providerDto = userServiceClient.getServiceProviderById(
-                    booking.getServiceProviderId()
-            );
-
-        } catch (Exception e) {
-            // Fallback dummy provider
-            providerDto = ServiceProviderDetailsDTO.builder()
-                    .id(booking.getServiceProviderId())
-                    .name("Unknown Provider")
-                    .phoneNumber("N/A")
-                    .email("N/A")
-                    .location(new LocationDTO(0.0,0.0,"Unknown"))
-                    .services(List.of("General Service"))
-                    .rating(0.0)
-                    .workingHours("N/A")
-                    .description("Provider details not available")
-                    .isVerified(false)
-                    .totalReviews(0)
-                    .build();
-        }
-
+    private ServiceRecordDto mapToDto(Booking booking, ServiceProviderDetailsDTO providerDto) {
         return ServiceRecordDto.builder()
                 .id(booking.getId())
                 .vehicleId(booking.getVehicleId())
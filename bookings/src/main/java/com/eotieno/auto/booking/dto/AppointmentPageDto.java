@@ -0,0 +1,13 @@
+package com.eotieno.auto.booking.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class AppointmentPageDto {
+    private List<AppointmentDto> appointments;
+    private String nextCursor; // null when there are no more pages
+}
@@ -0,0 +1,17 @@
+package com.eotieno.auto.booking.dto;
+
+import java.math.BigDecimal;
+
+// Row returned by the single-scan stats aggregate in BookingRepository
+public interface AppointmentStatsProjection {
+    Long getTotalAppointments();
+    Long getPendingCount();
+    Long getConfirmedCount();
+    Long getInProgressCount();
+    Long getCompletedCount();
+    Long getCancelledCount();
+    Long getNoShowCount();
+    Long getTodayAppointments();
+    BigDecimal getRevenue();
+    Double getAverageRating();
+}
@@ -0,0 +1,16 @@
+package com.eotieno.auto.booking.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BulkStatusUpdateDto {
+    @NotEmpty
+    private List<Long> appointmentIds;
+
+    @NotNull
+    private AppointmentStatus status;
+}
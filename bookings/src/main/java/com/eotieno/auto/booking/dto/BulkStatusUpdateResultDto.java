@@ -0,0 +1,24 @@
+package com.eotieno.auto.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BulkStatusUpdateResultDto {
+    private int updated;
+    private List<Long> updatedIds;
+    private List<FailedUpdate> failed;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FailedUpdate {
+        private Long appointmentId;
+        private String reason;
+    }
+}
@@ -0,0 +1,11 @@
+package com.eotieno.auto.booking.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Per-day counts and revenue used to rebuild the mechanic stats rollup
+public interface DailyStatsProjection {
+    LocalDate getStatDate();
+    Long getAppointmentCount();
+    BigDecimal getRevenue();
+}
@@ -0,0 +1,11 @@
+package com.eotieno.auto.booking.dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Just the columns the availability engine needs to mark a booking's time on the calendar
+public interface SlotOccupancyProjection {
+    LocalDate getPreferredDate();
+    LocalTime getPreferredTime();
+    Integer getEstimatedDuration();
+}
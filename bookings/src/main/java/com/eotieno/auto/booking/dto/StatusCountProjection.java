@@ -0,0 +1,9 @@
+package com.eotieno.auto.booking.dto;
+
+// Per-status counts used to rebuild the mechanic stats rollup
+public interface StatusCountProjection {
+    AppointmentStatus getStatus();
+    Long getAppointmentCount();
+    Long getRatingSum();
+    Long getRatingCount();
+}
@@ -13,7 +13,9 @@ import java.time.LocalTime;
 import java.util.List;
 
 @Entity
-@Table(name = "bookings")
+@Table(name = "bookings", indexes = {
+        @Index(name = "idx_bookings_provider_keyset", columnList = "serviceProviderId, preferredDate, preferredTime, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,38 @@
+package com.eotieno.auto.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Per-mechanic, per-day part of the stats rollup (keyed on preferredDate)
+@Entity
+@Table(name = "mechanic_daily_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MechanicDailyStats {
+
+    @EmbeddedId
+    private Key id;
+
+    private long appointmentCount;
+
+    @Column(nullable = false)
+    private BigDecimal revenue;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String serviceProviderId;
+        private LocalDate statDate;
+    }
+}
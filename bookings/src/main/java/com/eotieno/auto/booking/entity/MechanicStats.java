@@ -0,0 +1,40 @@
+package com.eotieno.auto.booking.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.UpdateTimestamp;
+
+import java.time.LocalDateTime;
+
+// Incrementally maintained per-mechanic rollup of the bookings table
+@Entity
+@Table(name = "mechanic_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class MechanicStats {
+
+    @Id
+    private String serviceProviderId;
+
+    private long totalAppointments;
+    private long pendingCount;
+    private long confirmedCount;
+    private long inProgressCount;
+    private long completedCount;
+    private long cancelledCount;
+    private long noShowCount;
+
+    // Rating is kept as sum/count so the average never drifts through rounding
+    private long ratingSum;
+    private long ratingCount;
+
+    private LocalDateTime rebuiltAt;
+
+    @UpdateTimestamp
+    private LocalDateTime updatedAt;
+}
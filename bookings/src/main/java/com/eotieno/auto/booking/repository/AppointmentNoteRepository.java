@@ -2,8 +2,17 @@ package com.eotieno.auto.booking.repository;
 
 import com.eotieno.auto.booking.entity.AppointmentNote;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface AppointmentNoteRepository extends JpaRepository<AppointmentNote, Long> {
+
+    // Notes for a whole page of bookings in one round trip
+    @Query("SELECT n FROM AppointmentNote n WHERE n.booking.id IN :bookingIds ORDER BY n.createdAt, n.id")
+    List<AppointmentNote> findByBookingIdIn(@Param("bookingIds") Collection<Long> bookingIds);
 }
@@ -1,21 +1,32 @@
 package com.eotieno.auto.booking.repository;
 
+import com.eotieno.auto.booking.dto.AppointmentStatsProjection;
 import com.eotieno.auto.booking.dto.AppointmentStatus;
 import com.eotieno.auto.booking.dto.AppointmentStatusDTO;
+import com.eotieno.auto.booking.dto.DailyStatsProjection;
+import com.eotieno.auto.booking.dto.SlotOccupancyProjection;
+import com.eotieno.auto.booking.dto.StatusCountProjection;
 import com.eotieno.auto.booking.entity.AppointmentNote;
 import com.eotieno.auto.booking.entity.Booking;
 import com.eotieno.auto.booking.entity.ServicePart;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface BookingRepository extends JpaRepository<Booking, Long> {
@@ -54,14 +65,105 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByServiceProviderIdAndStatusAndPreferredDateBetween(
             String serviceProviderId, AppointmentStatus status, LocalDate startDate, LocalDate endDate);
 
-    // Search appointments
-    @Query("SELECT b FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " +
-            "AND (LOWER(b.customerDetails.name) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "OR LOWER(b.vehicleId) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "OR LOWER(b.issueDescription) LIKE LOWER(CONCAT('%', :searchTerm, '%')) " +
-            "OR b.customerDetails.phone LIKE CONCAT('%', :searchTerm, '%'))")
+    // Optional filters shared by both keyset page queries
+    String MECHANIC_PAGE_FILTERS = "AND (:status IS NULL OR b.status = :status) " +
+            "AND (:dateFrom IS NULL OR b.preferredDate >= :dateFrom) " +
+            "AND (:dateTo IS NULL OR b.preferredDate <= :dateTo) ";
+
+    // First page of a mechanic's appointments, newest first; every filter is optional
+    @Query("SELECT b FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " + MECHANIC_PAGE_FILTERS +
+            "ORDER BY b.preferredDate DESC, b.preferredTime DESC, b.id DESC")
+    List<Booking> findMechanicAppointmentsFirstPage(@Param("serviceProviderId") String serviceProviderId,
+                                                    @Param("status") AppointmentStatus status,
+                                                    @Param("dateFrom") LocalDate dateFrom,
+                                                    @Param("dateTo") LocalDate dateTo,
+                                                    Pageable pageable);
+
+    // Page after a keyset cursor. The tuple comparison is rendered as one row-value comparison, a single range
+    // on idx_bookings_provider_keyset, so PostgreSQL seeks to the cursor instead of filtering every row before it.
+    @Query("SELECT b FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " + MECHANIC_PAGE_FILTERS +
+            "AND (b.preferredDate, b.preferredTime, b.id) < (:afterDate, :afterTime, :afterId) " +
+            "ORDER BY b.preferredDate DESC, b.preferredTime DESC, b.id DESC")
+    List<Booking> findMechanicAppointmentsAfter(@Param("serviceProviderId") String serviceProviderId,
+                                                @Param("status") AppointmentStatus status,
+                                                @Param("dateFrom") LocalDate dateFrom,
+                                                @Param("dateTo") LocalDate dateTo,
+                                                @Param("afterDate") LocalDate afterDate,
+                                                @Param("afterTime") LocalTime afterTime,
+                                                @Param("afterId") Long afterId,
+                                                Pageable pageable);
+
+    // Set-based status change for bulk updates. Only rows still in the status they were read with are
+    // written, and the ids that were actually changed come back so nothing is done for a row another request moved.
+    // RETURNING yields a result set, which @Modifying cannot read (it only reports an update count), so this runs
+    // through the query path and Hibernate does not know it writes: the caller must flush pending changes before
+    // and clear the persistence context after, as AppointmentService.applyBulkStatus does. It never opens its own
+    // transaction, so the rows stay locked until the caller's transaction ends.
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE bookings SET status = :status, updated_at = :now " +
+            "WHERE id IN (:ids) AND status = :expectedStatus " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> bulkUpdateStatus(@Param("ids") Collection<Long> ids,
+                                @Param("expectedStatus") String expectedStatus,
+                                @Param("status") String status,
+                                @Param("now") LocalDateTime now);
+
+    // Same as bulkUpdateStatus, also stamping the start time when work begins
+    @Transactional(propagation = Propagation.MANDATORY)
+    @Query(value = "UPDATE bookings SET status = :status, actual_start_time = :now, updated_at = :now " +
+            "WHERE id IN (:ids) AND status = :expectedStatus " +
+            "RETURNING id", nativeQuery = true)
+    List<Long> bulkStartWork(@Param("ids") Collection<Long> ids,
+                             @Param("expectedStatus") String expectedStatus,
+                             @Param("status") String status,
+                             @Param("now") LocalDateTime now);
+
+    // Occupied time for a mechanic over a date range, excluding bookings that released their slot
+    @Query("SELECT b.preferredDate AS preferredDate, b.preferredTime AS preferredTime, " +
+            "b.estimatedDuration AS estimatedDuration FROM Booking b " +
+            "WHERE b.serviceProviderId = :serviceProviderId " +
+            "AND b.preferredDate BETWEEN :dateFrom AND :dateTo " +
+            "AND b.status NOT IN :freeStatuses")
+    List<SlotOccupancyProjection> findSlotOccupancy(@Param("serviceProviderId") String serviceProviderId,
+                                                    @Param("dateFrom") LocalDate dateFrom,
+                                                    @Param("dateTo") LocalDate dateTo,
+                                                    @Param("freeStatuses") Collection<AppointmentStatus> freeStatuses);
+
+    // Searchable text of a booking; must match the expression of idx_bookings_search_trgm exactly
+    String SEARCH_DOCUMENT = "lower(coalesce(name, '') || ' ' || coalesce(phone, '') || ' ' || " +
+            "coalesce(vehicle_id, '') || ' ' || coalesce(issue_description, ''))";
+
+    // Search appointments via the pg_trgm index, best word match first. %> keeps only rows whose word_similarity
+    // reaches pg_trgm.word_similarity_threshold, so the index hands back a bounded candidate set to rank.
+    @Query(value = "SELECT * FROM bookings " +
+            "WHERE service_provider_id = :serviceProviderId " +
+            "AND " + SEARCH_DOCUMENT + " %> :searchTerm " +
+            "ORDER BY word_similarity(:searchTerm, " + SEARCH_DOCUMENT + ") DESC, " +
+            "preferred_date DESC, id DESC " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
     List<Booking> searchAppointments(@Param("serviceProviderId") String serviceProviderId,
-                                     @Param("searchTerm") String searchTerm);
+                                     @Param("searchTerm") String searchTerm,
+                                     @Param("limit") int limit,
+                                     @Param("offset") int offset);
+
+    // Threshold used by %> for the rest of the current transaction
+    @Query(value = "SELECT set_config('pg_trgm.word_similarity_threshold', :threshold, true)", nativeQuery = true)
+    String setWordSimilarityThreshold(@Param("threshold") String threshold);
+
+    // Export: rows are streamed with a JDBC fetch size instead of being loaded into one list
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT b FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " +
+            "AND (:status IS NULL OR b.status = :status) " +
+            "AND (:dateFrom IS NULL OR b.preferredDate >= :dateFrom) " +
+            "AND (:dateTo IS NULL OR b.preferredDate <= :dateTo) " +
+            "ORDER BY b.preferredDate DESC, b.preferredTime DESC")
+    Stream<Booking> streamForExport(@Param("serviceProviderId") String serviceProviderId,
+                                    @Param("status") AppointmentStatus status,
+                                    @Param("dateFrom") LocalDate dateFrom,
+                                    @Param("dateTo") LocalDate dateTo);
 
     // Vehicle appointment history
     List<Booking> findByVehicleIdOrderByPreferredDateDesc(String vehicleId);
@@ -70,25 +172,37 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     List<Booking> findByServiceProviderIdAndCustomerIdOrderByPreferredDateDesc(
             String serviceProviderId, String customerId);
 
-    // Statistics queries
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.serviceProviderId = :serviceProviderId")
-    Long countByServiceProviderId(@Param("serviceProviderId") String serviceProviderId);
-
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.serviceProviderId = :serviceProviderId AND b.status = :status")
-    Long countByServiceProviderIdAndStatus(@Param("serviceProviderId") String serviceProviderId,
-                                           @Param("status") AppointmentStatus status);
-
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.serviceProviderId = :serviceProviderId AND b.preferredDate = :date")
-    Long countTodayAppointments(@Param("serviceProviderId") String serviceProviderId,
-                                @Param("date") LocalDate date);
-
-    @Query("SELECT COALESCE(SUM(b.totalAmount), 0) FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " +
-            "AND b.status = 'COMPLETED' AND b.preferredDate BETWEEN :startDate AND :endDate")
-    BigDecimal sumRevenueByServiceProviderIdAndDateRange(@Param("serviceProviderId") String serviceProviderId,
-                                                         @Param("startDate") LocalDate startDate,
-                                                         @Param("endDate") LocalDate endDate);
-
-    @Query("SELECT COALESCE(AVG(b.customerRating), 0) FROM Booking b WHERE b.serviceProviderId = :serviceProviderId " +
-            "AND b.customerRating IS NOT NULL")
-    Double averageRatingByServiceProviderId(@Param("serviceProviderId") String serviceProviderId);
+    // All dashboard stats in one pass over the mechanic's bookings (served by idx_bookings_provider_keyset)
+    @Query("SELECT COUNT(b) AS totalAppointments, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.PENDING THEN 1 ELSE 0 END), 0) AS pendingCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.CONFIRMED THEN 1 ELSE 0 END), 0) AS confirmedCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.IN_PROGRESS THEN 1 ELSE 0 END), 0) AS inProgressCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.COMPLETED THEN 1 ELSE 0 END), 0) AS completedCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.CANCELLED THEN 1 ELSE 0 END), 0) AS cancelledCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.NO_SHOW THEN 1 ELSE 0 END), 0) AS noShowCount, " +
+            "COALESCE(SUM(CASE WHEN b.preferredDate = :today THEN 1 ELSE 0 END), 0) AS todayAppointments, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.COMPLETED " +
+            "AND b.preferredDate BETWEEN :startDate AND :endDate THEN b.totalAmount END), 0) AS revenue, " +
+            "COALESCE(AVG(b.customerRating), 0) AS averageRating " +
+            "FROM Booking b WHERE b.serviceProviderId = :serviceProviderId")
+    AppointmentStatsProjection aggregateStatsByServiceProviderId(@Param("serviceProviderId") String serviceProviderId,
+                                                                 @Param("today") LocalDate today,
+                                                                 @Param("startDate") LocalDate startDate,
+                                                                 @Param("endDate") LocalDate endDate);
+
+    // Rollup rebuild: counts and rating totals per status
+    @Query("SELECT b.status AS status, COUNT(b) AS appointmentCount, " +
+            "COALESCE(SUM(b.customerRating), 0) AS ratingSum, COUNT(b.customerRating) AS ratingCount " +
+            "FROM Booking b WHERE b.serviceProviderId = :serviceProviderId GROUP BY b.status")
+    List<StatusCountProjection> countByStatusForServiceProvider(@Param("serviceProviderId") String serviceProviderId);
+
+    // Rollup rebuild: appointments and completed revenue per day
+    @Query("SELECT b.preferredDate AS statDate, COUNT(b) AS appointmentCount, " +
+            "COALESCE(SUM(CASE WHEN b.status = com.eotieno.auto.booking.dto.AppointmentStatus.COMPLETED " +
+            "THEN b.totalAmount END), 0) AS revenue " +
+            "FROM Booking b WHERE b.serviceProviderId = :serviceProviderId GROUP BY b.preferredDate")
+    List<DailyStatsProjection> dailyStatsForServiceProvider(@Param("serviceProviderId") String serviceProviderId);
+
+    @Query("SELECT DISTINCT b.serviceProviderId FROM Booking b")
+    List<String> findDistinctServiceProviderIds();
 }
@@ -0,0 +1,23 @@
+package com.eotieno.auto.booking.repository;
+
+import com.eotieno.auto.booking.entity.MechanicDailyStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface MechanicDailyStatsRepository extends JpaRepository<MechanicDailyStats, MechanicDailyStats.Key> {
+
+    List<MechanicDailyStats> findByIdServiceProviderId(String serviceProviderId);
+
+    @Query("SELECT COALESCE(SUM(d.revenue), 0) FROM MechanicDailyStats d " +
+            "WHERE d.id.serviceProviderId = :serviceProviderId AND d.id.statDate BETWEEN :startDate AND :endDate")
+    BigDecimal sumRevenue(@Param("serviceProviderId") String serviceProviderId,
+                          @Param("startDate") LocalDate startDate,
+                          @Param("endDate") LocalDate endDate);
+}
@@ -0,0 +1,34 @@
+package com.eotieno.auto.booking.repository;
+
+import com.eotieno.auto.booking.entity.MechanicStats;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface MechanicStatsRepository extends JpaRepository<MechanicStats, String> {
+
+    // Serializes incremental updates for one mechanic
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM MechanicStats s WHERE s.serviceProviderId = :serviceProviderId")
+    Optional<MechanicStats> findForUpdate(@Param("serviceProviderId") String serviceProviderId);
+
+    // Creates an empty row unless one exists; a concurrent creator makes this wait, then insert nothing
+    @Modifying
+    @Query(value = "INSERT INTO mechanic_stats (service_provider_id, total_appointments, pending_count, " +
+            "confirmed_count, in_progress_count, completed_count, cancelled_count, no_show_count, " +
+            "rating_sum, rating_count, updated_at) " +
+            "VALUES (:serviceProviderId, 0, 0, 0, 0, 0, 0, 0, 0, 0, now()) " +
+            "ON CONFLICT (service_provider_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("serviceProviderId") String serviceProviderId);
+
+    @Query("SELECT s.serviceProviderId FROM MechanicStats s")
+    List<String> findAllServiceProviderIds();
+}
@@ -0,0 +1,43 @@
+package com.eotieno.auto.booking.repository;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+    // Due rows, including PROCESSING rows whose lease expired; rows locked by another node are skipped
+    @Query(value = "SELECT * FROM notification_outbox " +
+            "WHERE status IN ('PENDING', 'PROCESSING') AND next_attempt_at <= :now " +
+            "ORDER BY next_attempt_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<NotificationOutbox> lockDueBatch(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    // Completion of a claim. Only applies while the row is still PROCESSING under the same claim: a node that took
+    // over an expired lease has bumped attempts, and a row that was already finished is no longer PROCESSING.
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET status = 'SENT', sent_at = :sentAt, last_error = NULL " +
+            "WHERE id = :id AND status = 'PROCESSING' AND attempts = :claimedAttempts", nativeQuery = true)
+    int markSent(@Param("id") Long id,
+                 @Param("claimedAttempts") int claimedAttempts,
+                 @Param("sentAt") LocalDateTime sentAt);
+
+    // Failed attempt of a claim, rescheduled as PENDING or given up as FAILED; same claim check as markSent
+    @Modifying
+    @Query(value = "UPDATE notification_outbox SET status = :status, next_attempt_at = :nextAttemptAt, " +
+            "last_error = :lastError " +
+            "WHERE id = :id AND status = 'PROCESSING' AND attempts = :claimedAttempts", nativeQuery = true)
+    int markFailed(@Param("id") Long id,
+                   @Param("claimedAttempts") int claimedAttempts,
+                   @Param("status") String status,
+                   @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("lastError") String lastError);
+}
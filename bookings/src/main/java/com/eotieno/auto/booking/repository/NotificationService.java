@@ -5,9 +5,12 @@ import com.eotieno.auto.booking.entity.Booking;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
 
 public interface NotificationService {
     void sendStatusUpdateNotification(Booking booking, AppointmentStatus oldStatus, AppointmentStatus newStatus);
+    void sendStatusUpdateNotifications(List<Booking> bookings, Map<Long, AppointmentStatus> oldStatuses, AppointmentStatus newStatus);
     void sendCompletionNotification(Booking booking);
     void sendRescheduleNotification(Booking booking, LocalDate oldDate, LocalTime oldTime);
     void sendCancellationNotification(Booking booking);
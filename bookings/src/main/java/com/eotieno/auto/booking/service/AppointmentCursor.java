@@ -0,0 +1,37 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.exceptions.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Base64;
+
+/**
+ * Opaque keyset cursor over (preferredDate, preferredTime, id), the sort key of mechanic appointment listings
+ */
+public record AppointmentCursor(LocalDate preferredDate, LocalTime preferredTime, Long id) {
+
+    public static AppointmentCursor of(Booking booking) {
+        return new AppointmentCursor(booking.getPreferredDate(), booking.getPreferredTime(), booking.getId());
+    }
+
+    public static AppointmentCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Unexpected cursor format");
+            }
+            return new AppointmentCursor(LocalDate.parse(parts[0]), LocalTime.parse(parts[1]), Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String raw = preferredDate + "|" + preferredTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
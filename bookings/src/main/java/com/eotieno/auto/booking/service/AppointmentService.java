@@ -5,26 +5,37 @@ import com.eotieno.auto.booking.dto.*;
 import com.eotieno.auto.booking.entity.Booking;
 import com.eotieno.auto.booking.entity.AppointmentNote;
 import com.eotieno.auto.booking.entity.ServicePart;
+import com.eotieno.auto.booking.exceptions.BadRequestException;
 import com.eotieno.auto.booking.repository.AppointmentNoteRepository;
 import com.eotieno.auto.booking.repository.BookingRepository;
 import com.eotieno.auto.booking.repository.NotificationService;
 import com.eotieno.auto.booking.repository.ServicePartRepository;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -36,42 +47,61 @@ public class AppointmentService {
     private final AppointmentNoteRepository appointmentNoteRepository;
     private final ServicePartRepository servicePartRepository;
     private final NotificationService notificationService; // For sending notifications
+    private final MechanicStatsService mechanicStatsService;
+    private final SlotAvailabilityService slotAvailabilityService;
+    private final EntityManager entityManager;
+
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SEARCH_PAGE_SIZE = 100;
+    private static final int MIN_SEARCH_TERM_LENGTH = 3;
+    private static final String EXPORT_CSV_HEADER = "Date,Time,Status,Customer,Phone,Vehicle,Issue,Duration\n";
+
+    @Value("${booking.stats.use-rollup:true}")
+    private boolean useStatsRollup;
+
+    @Value("${booking.search.similarity-threshold:0.5}")
+    private double searchSimilarityThreshold;
 
     /**
-     * Get all appointments for a mechanic with optional filtering
+     * Get a page of a mechanic's appointments with optional filtering.
+     * Pages are addressed by an opaque keyset cursor so deep pages cost the same as the first one.
+     * A plain offset is still accepted from older clients when no cursor is given; it is rounded down
+     * to a multiple of the page size as before and costs as much as the rows it skips.
      */
-    public List<AppointmentDto> getMechanicAppointments(String mechanicId,
-                                                        AppointmentStatus status,
-                                                        LocalDate dateFrom,
-                                                        LocalDate dateTo,
-                                                        Integer limit,
-                                                        Integer offset) {
-        List<Booking> bookings;
+    public AppointmentPageDto getMechanicAppointments(String mechanicId,
+                                                      AppointmentStatus status,
+                                                      LocalDate dateFrom,
+                                                      LocalDate dateTo,
+                                                      Integer limit,
+                                                      Integer offset,
+                                                      String cursor) {
+        int pageSize = limit != null ? Math.min(Math.max(limit, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+        AppointmentCursor after = cursor != null && !cursor.isBlank() ? AppointmentCursor.decode(cursor) : null;
 
-        if (status != null && dateFrom != null && dateTo != null) {
-            bookings = bookingRepository.findByServiceProviderIdAndStatusAndPreferredDateBetween(
-                    mechanicId, status, dateFrom, dateTo);
-        } else if (status != null) {
-            bookings = bookingRepository.findByServiceProviderIdAndStatus(mechanicId, status);
-        } else if (dateFrom != null && dateTo != null) {
-            bookings = bookingRepository.findByServiceProviderIdAndPreferredDateBetween(
-                    mechanicId, dateFrom, dateTo);
+        List<Booking> bookings;
+        boolean hasMore;
+        if (after == null && offset != null && offset >= pageSize) {
+            bookings = bookingRepository.findMechanicAppointmentsFirstPage(
+                    mechanicId, status, dateFrom, dateTo, PageRequest.of(offset / pageSize, pageSize));
+            hasMore = bookings.size() == pageSize;
         } else {
-            if (limit != null) {
-                Pageable pageable = PageRequest.of(
-                        offset != null ? offset / limit : 0,
-                        limit,
-                        Sort.by("preferredDate").descending()
-                );
-                bookings = bookingRepository.findByServiceProviderId(mechanicId, pageable).getContent();
-            } else {
-                bookings = bookingRepository.findByServiceProviderIdOrderByPreferredDateDesc(mechanicId);
-            }
+            // Fetch one extra row to know whether another page exists
+            bookings = after == null
+                    ? bookingRepository.findMechanicAppointmentsFirstPage(
+                            mechanicId, status, dateFrom, dateTo, PageRequest.of(0, pageSize + 1))
+                    : bookingRepository.findMechanicAppointmentsAfter(
+                            mechanicId, status, dateFrom, dateTo,
+                            after.preferredDate(), after.preferredTime(), after.id(),
+                            PageRequest.of(0, pageSize + 1));
+            hasMore = bookings.size() > pageSize;
         }
+        List<Booking> page = bookings.size() > pageSize ? bookings.subList(0, pageSize) : bookings;
 
-        return bookings.stream()
-                .map(this::convertToAppointmentDto)
-                .collect(Collectors.toList());
+        return AppointmentPageDto.builder()
+                .appointments(convertToAppointmentDtos(page))
+                .nextCursor(hasMore ? AppointmentCursor.of(page.get(page.size() - 1)).encode() : null)
+                .build();
     }
 
     /**
@@ -89,6 +119,7 @@ public class AppointmentService {
         Booking booking = bookingRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         AppointmentStatus oldStatus = booking.getStatus();
         booking.setStatus(status);
 
@@ -98,6 +129,8 @@ public class AppointmentService {
         }
 
         Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking);
 
         // Send notification to customer
         notificationService.sendStatusUpdateNotification(booking, oldStatus, status);
@@ -107,6 +140,103 @@ public class AppointmentService {
         return convertToAppointmentDto(savedBooking);
     }
 
+    /**
+     * Update the status of many appointments at once.
+     * Targets are loaded in one query and changed with one UPDATE per current status; every requested id is reported back.
+     */
+    public BulkStatusUpdateResultDto bulkUpdateAppointmentStatus(List<Long> appointmentIds, AppointmentStatus status) {
+        List<Long> requestedIds = appointmentIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, Booking> bookings = bookingRepository.findAllById(requestedIds).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+
+        List<Booking> changed = requestedIds.stream()
+                .map(bookings::get)
+                .filter(booking -> booking != null && booking.getStatus() != status)
+                .collect(Collectors.toList());
+        Set<Long> written = changed.isEmpty() ? Set.of() : applyBulkStatus(changed, status);
+
+        List<BulkStatusUpdateResultDto.FailedUpdate> failed = new ArrayList<>();
+        List<Long> updatedIds = new ArrayList<>();
+        for (Long appointmentId : requestedIds) {
+            Booking booking = bookings.get(appointmentId);
+            if (booking == null) {
+                failed.add(new BulkStatusUpdateResultDto.FailedUpdate(appointmentId, "Appointment not found"));
+            } else if (booking.getStatus() == status || written.contains(appointmentId)) {
+                // Rows already in the target status count as done without a write or notification
+                updatedIds.add(appointmentId);
+            } else {
+                failed.add(new BulkStatusUpdateResultDto.FailedUpdate(appointmentId,
+                        "Appointment status was changed concurrently"));
+            }
+        }
+
+        log.info("Bulk status update to {}: {} updated, {} changed, {} failed",
+                status, updatedIds.size(), written.size(), failed.size());
+
+        return BulkStatusUpdateResultDto.builder()
+                .updated(updatedIds.size())
+                .updatedIds(updatedIds)
+                .failed(failed)
+                .build();
+    }
+
+    /**
+     * Writes the new status and returns the ids that were actually changed. Rows are only written while
+     * they still have the status they were loaded with, so the stats deltas and notifications built from
+     * the loaded copies are right for every id returned.
+     */
+    private Set<Long> applyBulkStatus(List<Booking> changed, AppointmentStatus status) {
+        Map<AppointmentStatus, List<Long>> idsByCurrentStatus = changed.stream()
+                .collect(Collectors.groupingBy(Booking::getStatus,
+                        Collectors.mapping(Booking::getId, Collectors.toList())));
+
+        LocalDateTime now = LocalDateTime.now();
+        // Hibernate does not see the UPDATE ... RETURNING as a write, so pending changes are pushed out first
+        entityManager.flush();
+        Set<Long> written = new HashSet<>();
+        idsByCurrentStatus.forEach((currentStatus, ids) -> written.addAll(status == AppointmentStatus.IN_PROGRESS
+                ? bookingRepository.bulkStartWork(ids, currentStatus.name(), status.name(), now)
+                : bookingRepository.bulkUpdateStatus(ids, currentStatus.name(), status.name(), now)));
+        // The loaded copies are stale now; detach them so they are never flushed over the new rows
+        entityManager.clear();
+
+        List<Booking> applied = changed.stream()
+                .filter(booking -> written.contains(booking.getId()))
+                .collect(Collectors.toList());
+        if (applied.size() != changed.size()) {
+            log.warn("Bulk status update to {}: {} of {} appointments changed concurrently and were skipped",
+                    status, changed.size() - applied.size(), changed.size());
+        }
+        if (applied.isEmpty()) {
+            return written;
+        }
+
+        List<MechanicStatsService.Snapshot> before = applied.stream()
+                .map(MechanicStatsService::snapshot)
+                .collect(Collectors.toList());
+        Map<Long, AppointmentStatus> oldStatuses = applied.stream()
+                .collect(Collectors.toMap(Booking::getId, Booking::getStatus));
+
+        // Mirror the change on the detached copies
+        applied.forEach(booking -> {
+            booking.setStatus(status);
+            booking.setUpdatedAt(now);
+            if (status == AppointmentStatus.IN_PROGRESS) {
+                booking.setActualStartTime(now);
+            }
+        });
+
+        mechanicStatsService.recordChanges(before, applied.stream()
+                .map(MechanicStatsService::snapshot)
+                .collect(Collectors.toList()));
+        applied.forEach(slotAvailabilityService::invalidate);
+        notificationService.sendStatusUpdateNotifications(applied, oldStatuses, status);
+        return written;
+    }
+
     /**
      * Add notes to appointment
      */
@@ -134,10 +264,13 @@ public class AppointmentService {
         Booking booking = bookingRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         booking.setEstimatedDuration(estimate.getEstimatedDuration());
         booking.setTotalAmount(estimate.getEstimatedCost());
 
         Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking);
 
         log.info("Updated estimate for appointment {}: {}min, KES {}",
                 appointmentId, estimate.getEstimatedDuration(), estimate.getEstimatedCost());
@@ -152,6 +285,8 @@ public class AppointmentService {
         Booking booking = bookingRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
+
         // Update completion details
         booking.setStatus(AppointmentStatus.COMPLETED);
         booking.setActualEndTime(LocalDateTime.now());
@@ -177,6 +312,7 @@ public class AppointmentService {
         booking.setPaymentMethod(completion.getPaymentMethod());
 
         Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
 
         // Save parts used
         if (completion.getPartsUsed() != null && !completion.getPartsUsed().isEmpty()) {
@@ -212,6 +348,7 @@ public class AppointmentService {
         Booking booking = bookingRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         LocalDate oldDate = booking.getPreferredDate();
         LocalTime oldTime = booking.getPreferredTime();
 
@@ -220,6 +357,8 @@ public class AppointmentService {
         booking.setRescheduleReason(reason);
 
         Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking.getServiceProviderId(), oldDate, newDate);
 
         // Send reschedule notification
         notificationService.sendRescheduleNotification(booking, oldDate, oldTime);
@@ -237,10 +376,13 @@ public class AppointmentService {
         Booking booking = bookingRepository.findById(appointmentId)
                 .orElseThrow(() -> new RuntimeException("Appointment not found with id: " + appointmentId));
 
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         booking.setStatus(AppointmentStatus.CANCELLED);
         booking.setCancelReason(reason);
 
         Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking);
 
         // Send cancellation notification
         notificationService.sendCancellationNotification(booking);
@@ -257,48 +399,66 @@ public class AppointmentService {
         LocalDate startDate = calculateStartDate(period);
         LocalDate endDate = LocalDate.now();
 
+        if (useStatsRollup) {
+            return mechanicStatsService.getAppointmentStats(mechanicId, startDate, endDate);
+        }
+
+        // One grouped scan instead of a round trip per counter
+        AppointmentStatsProjection stats = bookingRepository.aggregateStatsByServiceProviderId(
+                mechanicId, endDate, startDate, endDate);
+
         return AppointmentStatsDto.builder()
-                .totalAppointments(bookingRepository.countByServiceProviderId(mechanicId))
-                .pendingCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.PENDING))
-                .confirmedCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.CONFIRMED))
-                .inProgressCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.IN_PROGRESS))
-                .completedCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.COMPLETED))
-                .cancelledCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.CANCELLED))
-                .noShowCount(bookingRepository.countByServiceProviderIdAndStatus(mechanicId, AppointmentStatus.NO_SHOW))
-                .todayAppointments(bookingRepository.countTodayAppointments(mechanicId, LocalDate.now()))
-                .thisWeekRevenue(bookingRepository.sumRevenueByServiceProviderIdAndDateRange(mechanicId, startDate, endDate))
-                .averageRating(bookingRepository.averageRatingByServiceProviderId(mechanicId))
+                .totalAppointments(stats.getTotalAppointments())
+                .pendingCount(stats.getPendingCount())
+                .confirmedCount(stats.getConfirmedCount())
+                .inProgressCount(stats.getInProgressCount())
+                .completedCount(stats.getCompletedCount())
+                .cancelledCount(stats.getCancelledCount())
+                .noShowCount(stats.getNoShowCount())
+                .todayAppointments(stats.getTodayAppointments())
+                .thisWeekRevenue(stats.getRevenue())
+                .averageRating(stats.getAverageRating())
                 .build();
     }
 
     /**
-     * Search appointments
+     * Rebuild the stats rollup for a mechanic from the bookings table
      */
-    public List<AppointmentDto> searchAppointments(String mechanicId, String searchTerm) {
-        List<Booking> bookings = bookingRepository.searchAppointments(mechanicId, searchTerm);
-        return bookings.stream()
-                .map(this::convertToAppointmentDto)
-                .collect(Collectors.toList());
+    public AppointmentStatsDto rebuildMechanicAppointmentStats(String mechanicId, String period) {
+        mechanicStatsService.rebuild(mechanicId);
+        return mechanicStatsService.getAppointmentStats(mechanicId, calculateStartDate(period), LocalDate.now());
     }
 
     /**
-     * Get available time slots for a date
+     * Search appointments by customer name, phone, vehicle or issue, ranked by match quality.
+     * Terms shorter than a trigram are rejected: the index cannot narrow them down, so they would scan.
      */
-    public List<String> getAvailableTimeSlots(String mechanicId, LocalDate date) {
-        // Get booked slots for the date
-        List<Booking> bookedAppointments = bookingRepository.findByServiceProviderIdAndPreferredDate(mechanicId, date);
-        List<String> bookedSlots = bookedAppointments.stream()
-                .map(booking -> booking.getPreferredTime().format(DateTimeFormatter.ofPattern("HH:mm")))
-                .collect(Collectors.toList());
+    public List<AppointmentDto> searchAppointments(String mechanicId, String searchTerm, int page, int size) {
+        String term = searchTerm != null ? searchTerm.trim().toLowerCase() : "";
+        if (term.length() < MIN_SEARCH_TERM_LENGTH) {
+            throw new BadRequestException("Search term must be at least " + MIN_SEARCH_TERM_LENGTH + " characters");
+        }
+        int pageSize = Math.min(Math.max(size, 1), MAX_SEARCH_PAGE_SIZE);
 
-        // All possible time slots
-        List<String> allSlots = List.of("08:00", "09:00", "10:00", "11:00", "12:00",
-                "13:00", "14:00", "15:00", "16:00", "17:00");
+        bookingRepository.setWordSimilarityThreshold(String.valueOf(searchSimilarityThreshold));
+        List<Booking> bookings = bookingRepository.searchAppointments(
+                mechanicId, term, pageSize, Math.max(page, 0) * pageSize);
+        return convertToAppointmentDtos(bookings);
+    }
 
-        // Return available slots
-        return allSlots.stream()
-                .filter(slot -> !bookedSlots.contains(slot))
-                .collect(Collectors.toList());
+    /**
+     * Get available time slots for a date, taking the job duration into account
+     */
+    public List<String> getAvailableTimeSlots(String mechanicId, LocalDate date, Integer durationMinutes) {
+        return slotAvailabilityService.getAvailableSlots(mechanicId, date, durationMinutes);
+    }
+
+    /**
+     * Get available time slots for every day in a range (a week or month of calendar at once)
+     */
+    public Map<LocalDate, List<String>> getAvailableTimeSlots(String mechanicId, LocalDate dateFrom,
+                                                              LocalDate dateTo, Integer durationMinutes) {
+        return slotAvailabilityService.getAvailableSlots(mechanicId, dateFrom, dateTo, durationMinutes);
     }
 
     /**
@@ -306,9 +466,7 @@ public class AppointmentService {
      */
     public List<AppointmentDto> getVehicleAppointmentHistory(String vehicleId) {
         List<Booking> bookings = bookingRepository.findByVehicleIdOrderByPreferredDateDesc(vehicleId);
-        return bookings.stream()
-                .map(this::convertToAppointmentDto)
-                .collect(Collectors.toList());
+        return convertToAppointmentDtos(bookings);
     }
 
     /**
@@ -317,12 +475,71 @@ public class AppointmentService {
     public List<AppointmentDto> getCustomerAppointmentHistory(String mechanicId, String customerId) {
         List<Booking> bookings = bookingRepository.findByServiceProviderIdAndCustomerIdOrderByPreferredDateDesc(
                 mechanicId, customerId);
-        return bookings.stream()
-                .map(this::convertToAppointmentDto)
-                .collect(Collectors.toList());
+        return convertToAppointmentDtos(bookings);
+    }
+
+    /**
+     * Stream appointments as CSV rows straight from the database cursor.
+     * Entities are detached as soon as they are written so memory stays flat regardless of row count.
+     */
+    @Transactional(readOnly = true)
+    public long exportAppointmentsCsv(String mechanicId,
+                                      AppointmentStatus status,
+                                      LocalDate dateFrom,
+                                      LocalDate dateTo,
+                                      Writer writer) throws IOException {
+        writer.write(EXPORT_CSV_HEADER);
+
+        long rows = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamForExport(mechanicId, status, dateFrom, dateTo)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                Booking booking = iterator.next();
+                writeCsvRow(writer, booking);
+                entityManager.detach(booking);
+                rows++;
+            }
+        }
+        writer.flush();
+
+        log.info("Exported {} appointments for mechanic {}", rows, mechanicId);
+        return rows;
     }
 
     // Helper methods
+    private void writeCsvRow(Writer writer, Booking booking) throws IOException {
+        Booking.CustomerDetails customer = booking.getCustomerDetails();
+        String issue = booking.getIssueDescription() != null
+                ? booking.getIssueDescription().replace(',', ';') : "";
+
+        writer.write(booking.getPreferredDate().toString());
+        writer.write(',');
+        writer.write(booking.getPreferredTime().format(DateTimeFormatter.ofPattern("HH:mm")));
+        writer.write(',');
+        writer.write(booking.getStatus().name());
+        writer.write(',');
+        writer.write(csvValue(customer != null ? customer.getName() : "N/A"));
+        writer.write(',');
+        writer.write(csvValue(customer != null ? customer.getPhone() : "N/A"));
+        writer.write(',');
+        writer.write(csvValue(booking.getVehicleId()));
+        writer.write(',');
+        writer.write(csvValue(issue.substring(0, Math.min(50, issue.length()))));
+        writer.write(',');
+        writer.write(booking.getEstimatedDuration() != null ? booking.getEstimatedDuration() + " min" : "N/A");
+        writer.write('\n');
+    }
+
+    private String csvValue(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+        return value;
+    }
+
     private LocalDate calculateStartDate(String period) {
         LocalDate now = LocalDate.now();
         return switch (period != null ? period : "week") {
@@ -334,6 +551,33 @@ public class AppointmentService {
     }
 
     private AppointmentDto convertToAppointmentDto(Booking booking) {
+        return convertToAppointmentDto(booking, booking.getNotes() != null ?
+                booking.getNotes().stream()
+                        .map(this::convertToAppointmentNoteDto)
+                        .collect(Collectors.toList()) : null);
+    }
+
+    // List paths load the notes of every booking in one IN query instead of touching each lazy collection
+    private List<AppointmentDto> convertToAppointmentDtos(List<Booking> bookings) {
+        if (bookings.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        List<Long> bookingIds = bookings.stream()
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<AppointmentNoteDto>> notesByBooking = appointmentNoteRepository.findByBookingIdIn(bookingIds)
+                .stream()
+                .collect(Collectors.groupingBy(note -> note.getBooking().getId(),
+                        Collectors.mapping(this::convertToAppointmentNoteDto, Collectors.toList())));
+
+        return bookings.stream()
+                .map(booking -> convertToAppointmentDto(booking,
+                        notesByBooking.getOrDefault(booking.getId(), new ArrayList<>())))
+                .collect(Collectors.toList());
+    }
+
+    private AppointmentDto convertToAppointmentDto(Booking booking, List<AppointmentNoteDto> serviceNotes) {
         return AppointmentDto.builder()
                 .id(booking.getId())
                 .vehicleId(booking.getVehicleId())
@@ -352,10 +596,7 @@ public class AppointmentService {
                 .totalAmount(booking.getTotalAmount())
                 .createdAt(booking.getCreatedAt())
                 .updatedAt(booking.getUpdatedAt())
-                .serviceNotes(booking.getNotes() != null ?
-                        booking.getNotes().stream()
-                                .map(this::convertToAppointmentNoteDto)
-                                .collect(Collectors.toList()) : null)
+                .serviceNotes(serviceNotes)
                 .build();
     }
 
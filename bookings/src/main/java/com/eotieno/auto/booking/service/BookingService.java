@@ -6,23 +6,33 @@ import com.eotieno.auto.booking.repository.BookingRepository;
 import lombok.AllArgsConstructor;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 
 @Service
-
+@Transactional
 public class BookingService {
 
     private final BookingRepository bookingRepository;
+    private final MechanicStatsService mechanicStatsService;
+    private final SlotAvailabilityService slotAvailabilityService;
 
-    public BookingService(BookingRepository bookingRepository) {
+    public BookingService(BookingRepository bookingRepository,
+                          MechanicStatsService mechanicStatsService,
+                          SlotAvailabilityService slotAvailabilityService) {
         this.bookingRepository = bookingRepository;
+        this.mechanicStatsService = mechanicStatsService;
+        this.slotAvailabilityService = slotAvailabilityService;
     }
 
     // Create a new booking (default status = PENDING)
     public Booking createBooking(Booking booking) {
         booking.setStatus(AppointmentStatus.PENDING);
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(null, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking);
+        return savedBooking;
     }
 
     // Get all bookings (optionally with filters)
@@ -45,27 +55,41 @@ public class BookingService {
 
     public Booking updateBooking(Long id, Booking bookingDetails) {
         Booking booking = getBookingById(id);
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
+        slotAvailabilityService.invalidate(booking);
         booking.setPreferredDate(bookingDetails.getPreferredDate());
         booking.setPreferredTime(bookingDetails.getPreferredTime());
         booking.setIssueDescription(bookingDetails.getIssueDescription());
         booking.setCustomerDetails(bookingDetails.getCustomerDetails());
-        return bookingRepository.save(booking);
+        Booking savedBooking = bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(savedBooking));
+        slotAvailabilityService.invalidate(savedBooking);
+        return savedBooking;
     }
 
     public void cancelBooking(Long id) {
         Booking booking = getBookingById(id);
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         booking.setStatus(AppointmentStatus.CANCELLED);
         bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(booking));
+        slotAvailabilityService.invalidate(booking);
     }
 
     public void confirmBooking(Long id) {
         Booking booking = getBookingById(id);
+        MechanicStatsService.Snapshot before = MechanicStatsService.snapshot(booking);
         booking.setStatus(AppointmentStatus.CONFIRMED);
         bookingRepository.save(booking);
+        mechanicStatsService.recordChange(before, MechanicStatsService.snapshot(booking));
     }
 
     public void deleteBooking(Long id) {
-        bookingRepository.deleteById(id);
+        bookingRepository.findById(id).ifPresent(booking -> {
+            bookingRepository.delete(booking);
+            mechanicStatsService.recordChange(MechanicStatsService.snapshot(booking), null);
+            slotAvailabilityService.invalidate(booking);
+        });
     }
 
     public List<Booking> getBookingByVehicle(String vin) {
@@ -0,0 +1,18 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+// Default sink until a real email/SMS channel is wired in
+@Component
+@Slf4j
+public class LoggingNotificationChannel implements NotificationChannel {
+
+    @Override
+    public void send(NotificationOutbox notification) {
+        log.info("{} notification for appointment {} sent to {} ({}): {}",
+                notification.getType(), notification.getBookingId(), notification.getRecipientName(),
+                notification.getRecipientEmail(), notification.getMessage());
+    }
+}
@@ -0,0 +1,45 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.repository.BookingRepository;
+import com.eotieno.auto.booking.repository.MechanicStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Periodically recomputes the stats rollup from the bookings table so drift is detected and fixed.
+ * Each mechanic is reconciled in its own transaction.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MechanicStatsReconciler {
+
+    private final BookingRepository bookingRepository;
+    private final MechanicStatsRepository mechanicStatsRepository;
+    private final MechanicStatsService mechanicStatsService;
+
+    @Scheduled(cron = "${booking.stats.reconcile-cron:0 30 3 * * *}")
+    public void reconcileAll() {
+        // Include rollup rows whose bookings are all gone
+        Set<String> mechanicIds = new LinkedHashSet<>(bookingRepository.findDistinctServiceProviderIds());
+        mechanicIds.addAll(mechanicStatsRepository.findAllServiceProviderIds());
+
+        int drifted = 0;
+        for (String mechanicId : mechanicIds) {
+            try {
+                if (mechanicStatsService.reconcile(mechanicId)) {
+                    drifted++;
+                }
+            } catch (Exception e) {
+                log.error("Failed to reconcile stats for mechanic {}: {}", mechanicId, e.getMessage());
+            }
+        }
+
+        log.info("Reconciled stats rollup for {} mechanics, {} had drifted", mechanicIds.size(), drifted);
+    }
+}
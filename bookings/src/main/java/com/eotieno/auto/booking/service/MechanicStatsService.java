@@ -0,0 +1,307 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.AppointmentStatsDto;
+import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.dto.DailyStatsProjection;
+import com.eotieno.auto.booking.dto.StatusCountProjection;
+import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.entity.MechanicDailyStats;
+import com.eotieno.auto.booking.entity.MechanicStats;
+import com.eotieno.auto.booking.repository.BookingRepository;
+import com.eotieno.auto.booking.repository.MechanicDailyStatsRepository;
+import com.eotieno.auto.booking.repository.MechanicStatsRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains the mechanic_stats / mechanic_daily_stats rollup.
+ * Every booking write records what the booking contributed before and after the change,
+ * and only the difference is applied to the rollup rows.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class MechanicStatsService {
+
+    private final MechanicStatsRepository mechanicStatsRepository;
+    private final MechanicDailyStatsRepository mechanicDailyStatsRepository;
+    private final BookingRepository bookingRepository;
+
+    /**
+     * What a single booking contributes to its mechanic's rollup
+     */
+    public record Snapshot(String serviceProviderId,
+                           AppointmentStatus status,
+                           LocalDate date,
+                           BigDecimal revenue,
+                           Integer rating) {
+    }
+
+    public static Snapshot snapshot(Booking booking) {
+        BigDecimal revenue = booking.getStatus() == AppointmentStatus.COMPLETED && booking.getTotalAmount() != null
+                ? booking.getTotalAmount() : BigDecimal.ZERO;
+        return new Snapshot(booking.getServiceProviderId(), booking.getStatus(), booking.getPreferredDate(),
+                revenue, booking.getCustomerRating());
+    }
+
+    /**
+     * Apply a single booking change; pass null for before on create and null for after on delete
+     */
+    public void recordChange(Snapshot before, Snapshot after) {
+        recordChanges(before != null ? List.of(before) : List.of(), after != null ? List.of(after) : List.of());
+    }
+
+    /**
+     * Apply many booking changes, grouped so each mechanic's row is locked and written once.
+     * Rows are locked in serviceProviderId order so two bulk updates cannot deadlock on each other.
+     */
+    public void recordChanges(List<Snapshot> removed, List<Snapshot> added) {
+        Map<String, Delta> deltas = new TreeMap<>();
+        removed.forEach(snapshot -> deltas.computeIfAbsent(snapshot.serviceProviderId(), Delta::new).add(snapshot, -1));
+        added.forEach(snapshot -> deltas.computeIfAbsent(snapshot.serviceProviderId(), Delta::new).add(snapshot, 1));
+
+        deltas.values().stream()
+                .filter(delta -> !delta.isEmpty())
+                .forEach(this::applyDelta);
+    }
+
+    /**
+     * Dashboard stats served from the rollup: one primary-key read plus a short key-range read for revenue
+     */
+    public AppointmentStatsDto getAppointmentStats(String mechanicId, LocalDate startDate, LocalDate endDate) {
+        MechanicStats stats = mechanicStatsRepository.findById(mechanicId)
+                .orElseGet(() -> rebuild(mechanicId));
+
+        long todayAppointments = mechanicDailyStatsRepository
+                .findById(new MechanicDailyStats.Key(mechanicId, LocalDate.now()))
+                .map(MechanicDailyStats::getAppointmentCount)
+                .orElse(0L);
+
+        return AppointmentStatsDto.builder()
+                .totalAppointments(stats.getTotalAppointments())
+                .pendingCount(stats.getPendingCount())
+                .confirmedCount(stats.getConfirmedCount())
+                .inProgressCount(stats.getInProgressCount())
+                .completedCount(stats.getCompletedCount())
+                .cancelledCount(stats.getCancelledCount())
+                .noShowCount(stats.getNoShowCount())
+                .todayAppointments(todayAppointments)
+                .thisWeekRevenue(mechanicDailyStatsRepository.sumRevenue(mechanicId, startDate, endDate))
+                .averageRating(stats.getRatingCount() > 0
+                        ? (double) stats.getRatingSum() / stats.getRatingCount() : 0.0)
+                .build();
+    }
+
+    /**
+     * Recompute a mechanic's rollup from the bookings table and overwrite it
+     */
+    public MechanicStats rebuild(String mechanicId) {
+        mechanicStatsRepository.insertIfAbsent(mechanicId);
+        MechanicStats stats = lockStats(mechanicId);
+
+        RollupState fresh = computeFromBookings(mechanicId);
+        return writeRollup(stats, fresh);
+    }
+
+    /**
+     * Compare a mechanic's rollup with the bookings table and fix it if they differ
+     *
+     * @return true if drift was found
+     */
+    public boolean reconcile(String mechanicId) {
+        Optional<MechanicStats> current = mechanicStatsRepository.findForUpdate(mechanicId);
+        RollupState fresh = computeFromBookings(mechanicId);
+
+        Map<LocalDate, MechanicDailyStats> currentDays = mechanicDailyStatsRepository
+                .findByIdServiceProviderId(mechanicId).stream()
+                .collect(Collectors.toMap(daily -> daily.getId().getStatDate(), Function.identity()));
+
+        boolean drift = current.isEmpty()
+                || !sameTotals(current.get(), fresh.totals())
+                || !sameDays(currentDays, fresh.days());
+
+        if (drift) {
+            log.warn("Stats rollup drift detected for mechanic {}, rebuilding", mechanicId);
+            writeRollup(current.orElseGet(() -> MechanicStats.builder().serviceProviderId(mechanicId).build()), fresh);
+        }
+        return drift;
+    }
+
+    // Helper methods
+    private void applyDelta(Delta delta) {
+        // Racing first writes both reach the lock below instead of colliding on the primary key
+        boolean created = mechanicStatsRepository.insertIfAbsent(delta.serviceProviderId) > 0;
+        MechanicStats stats = lockStats(delta.serviceProviderId);
+        if (created) {
+            // First write for this mechanic: the rebuild already sees the pending change
+            writeRollup(stats, computeFromBookings(delta.serviceProviderId));
+            return;
+        }
+
+        delta.statusCounts.forEach((status, count) -> adjustStatusCount(stats, status, count));
+        stats.setRatingSum(stats.getRatingSum() + delta.ratingSum);
+        stats.setRatingCount(stats.getRatingCount() + delta.ratingCount);
+        mechanicStatsRepository.save(stats);
+
+        delta.days.forEach((date, dayDelta) -> {
+            if (dayDelta.isEmpty()) {
+                return;
+            }
+            MechanicDailyStats.Key key = new MechanicDailyStats.Key(delta.serviceProviderId, date);
+            MechanicDailyStats daily = mechanicDailyStatsRepository.findById(key)
+                    .orElseGet(() -> new MechanicDailyStats(key, 0, BigDecimal.ZERO));
+            daily.setAppointmentCount(daily.getAppointmentCount() + dayDelta.count);
+            daily.setRevenue(daily.getRevenue().add(dayDelta.revenue));
+
+            if (daily.getAppointmentCount() <= 0 && daily.getRevenue().signum() == 0) {
+                mechanicDailyStatsRepository.delete(daily);
+            } else {
+                mechanicDailyStatsRepository.save(daily);
+            }
+        });
+    }
+
+    private MechanicStats lockStats(String mechanicId) {
+        return mechanicStatsRepository.findForUpdate(mechanicId)
+                .orElseThrow(() -> new IllegalStateException("No stats row for mechanic " + mechanicId));
+    }
+
+    private RollupState computeFromBookings(String mechanicId) {
+        MechanicStats totals = MechanicStats.builder().serviceProviderId(mechanicId).build();
+        for (StatusCountProjection row : bookingRepository.countByStatusForServiceProvider(mechanicId)) {
+            adjustStatusCount(totals, row.getStatus(), row.getAppointmentCount());
+            totals.setRatingSum(totals.getRatingSum() + row.getRatingSum());
+            totals.setRatingCount(totals.getRatingCount() + row.getRatingCount());
+        }
+
+        Map<LocalDate, MechanicDailyStats> days = new HashMap<>();
+        for (DailyStatsProjection row : bookingRepository.dailyStatsForServiceProvider(mechanicId)) {
+            days.put(row.getStatDate(), new MechanicDailyStats(
+                    new MechanicDailyStats.Key(mechanicId, row.getStatDate()),
+                    row.getAppointmentCount(),
+                    row.getRevenue()));
+        }
+        return new RollupState(totals, days);
+    }
+
+    private MechanicStats writeRollup(MechanicStats stats, RollupState fresh) {
+        MechanicStats totals = fresh.totals();
+        stats.setTotalAppointments(totals.getTotalAppointments());
+        stats.setPendingCount(totals.getPendingCount());
+        stats.setConfirmedCount(totals.getConfirmedCount());
+        stats.setInProgressCount(totals.getInProgressCount());
+        stats.setCompletedCount(totals.getCompletedCount());
+        stats.setCancelledCount(totals.getCancelledCount());
+        stats.setNoShowCount(totals.getNoShowCount());
+        stats.setRatingSum(totals.getRatingSum());
+        stats.setRatingCount(totals.getRatingCount());
+        stats.setRebuiltAt(LocalDateTime.now());
+        MechanicStats saved = mechanicStatsRepository.save(stats);
+
+        // Update day rows in place so no stale managed instances are left behind
+        List<MechanicDailyStats> stale = new ArrayList<>();
+        for (MechanicDailyStats existing : mechanicDailyStatsRepository.findByIdServiceProviderId(stats.getServiceProviderId())) {
+            MechanicDailyStats replacement = fresh.days().remove(existing.getId().getStatDate());
+            if (replacement == null) {
+                stale.add(existing);
+            } else {
+                existing.setAppointmentCount(replacement.getAppointmentCount());
+                existing.setRevenue(replacement.getRevenue());
+            }
+        }
+        mechanicDailyStatsRepository.deleteAll(stale);
+        mechanicDailyStatsRepository.saveAll(fresh.days().values());
+
+        return saved;
+    }
+
+    private boolean sameTotals(MechanicStats current, MechanicStats fresh) {
+        return current.getTotalAppointments() == fresh.getTotalAppointments()
+                && current.getPendingCount() == fresh.getPendingCount()
+                && current.getConfirmedCount() == fresh.getConfirmedCount()
+                && current.getInProgressCount() == fresh.getInProgressCount()
+                && current.getCompletedCount() == fresh.getCompletedCount()
+                && current.getCancelledCount() == fresh.getCancelledCount()
+                && current.getNoShowCount() == fresh.getNoShowCount()
+                && current.getRatingSum() == fresh.getRatingSum()
+                && current.getRatingCount() == fresh.getRatingCount();
+    }
+
+    private boolean sameDays(Map<LocalDate, MechanicDailyStats> current, Map<LocalDate, MechanicDailyStats> fresh) {
+        if (current.size() != fresh.size()) {
+            return false;
+        }
+        return fresh.entrySet().stream().allMatch(entry -> {
+            MechanicDailyStats existing = current.get(entry.getKey());
+            return existing != null
+                    && existing.getAppointmentCount() == entry.getValue().getAppointmentCount()
+                    && existing.getRevenue().compareTo(entry.getValue().getRevenue()) == 0;
+        });
+    }
+
+    private void adjustStatusCount(MechanicStats stats, AppointmentStatus status, long delta) {
+        stats.setTotalAppointments(stats.getTotalAppointments() + delta);
+        switch (status) {
+            case PENDING -> stats.setPendingCount(stats.getPendingCount() + delta);
+            case CONFIRMED -> stats.setConfirmedCount(stats.getConfirmedCount() + delta);
+            case IN_PROGRESS -> stats.setInProgressCount(stats.getInProgressCount() + delta);
+            case COMPLETED -> stats.setCompletedCount(stats.getCompletedCount() + delta);
+            case CANCELLED -> stats.setCancelledCount(stats.getCancelledCount() + delta);
+            case NO_SHOW -> stats.setNoShowCount(stats.getNoShowCount() + delta);
+            default -> {
+                // Other statuses only count towards the total
+            }
+        }
+    }
+
+    private record RollupState(MechanicStats totals, Map<LocalDate, MechanicDailyStats> days) {
+    }
+
+    private static final class Delta {
+        private final String serviceProviderId;
+        private final Map<AppointmentStatus, Long> statusCounts = new EnumMap<>(AppointmentStatus.class);
+        private final Map<LocalDate, DayDelta> days = new HashMap<>();
+        private long ratingSum;
+        private long ratingCount;
+
+        private Delta(String serviceProviderId) {
+            this.serviceProviderId = serviceProviderId;
+        }
+
+        private void add(Snapshot snapshot, int sign) {
+            statusCounts.merge(snapshot.status(), (long) sign, Long::sum);
+            if (snapshot.rating() != null) {
+                ratingSum += (long) sign * snapshot.rating();
+                ratingCount += sign;
+            }
+            DayDelta day = days.computeIfAbsent(snapshot.date(), date -> new DayDelta());
+            day.count += sign;
+            day.revenue = sign > 0 ? day.revenue.add(snapshot.revenue()) : day.revenue.subtract(snapshot.revenue());
+        }
+
+        private boolean isEmpty() {
+            return ratingSum == 0 && ratingCount == 0
+                    && statusCounts.values().stream().allMatch(count -> count == 0)
+                    && days.values().stream().allMatch(DayDelta::isEmpty);
+        }
+    }
+
+    private static final class DayDelta {
+        private long count;
+        private BigDecimal revenue = BigDecimal.ZERO;
+
+        private boolean isEmpty() {
+            return count == 0 && revenue.signum() == 0;
+        }
+    }
+}
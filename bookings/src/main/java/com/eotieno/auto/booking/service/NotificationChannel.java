@@ -0,0 +1,11 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+
+/**
+ * Delivery transport for outbox notifications (email, SMS, ...).
+ * Throwing from send marks the attempt as failed and schedules a retry.
+ */
+public interface NotificationChannel {
+    void send(NotificationOutbox notification) throws Exception;
+}
@@ -0,0 +1,110 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+import com.eotieno.auto.booking.repository.NotificationOutboxRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Claim and completion bookkeeping for the notification outbox.
+ * Each call runs in its own short transaction so no row lock is held while a channel is sending.
+ * A claim is identified by its attempt number: completions only apply while the row is still PROCESSING
+ * under that attempt, so a sender that outlives its lease cannot overwrite the outcome of the node that
+ * took the row over. Delivery stays at-least-once; the lease should comfortably exceed the slowest send.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class NotificationOutboxService {
+
+    private final NotificationOutboxRepository outboxRepository;
+
+    @Value("${booking.notifications.lease-seconds:120}")
+    private long leaseSeconds;
+
+    @Value("${booking.notifications.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${booking.notifications.backoff-base-seconds:30}")
+    private long backoffBaseSeconds;
+
+    @Value("${booking.notifications.backoff-max-seconds:3600}")
+    private long backoffMaxSeconds;
+
+    /**
+     * Lock a batch of due rows and lease them to this node by moving them to PROCESSING
+     */
+    @Transactional
+    public List<NotificationOutbox> claimBatch(int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime leaseUntil = now.plusSeconds(leaseSeconds);
+
+        List<NotificationOutbox> claimed = new ArrayList<>();
+        for (NotificationOutbox notification : outboxRepository.lockDueBatch(now, limit)) {
+            // A lease that expired on its last allowed attempt is not retried again
+            if (notification.getAttempts() >= maxAttempts) {
+                notification.setStatus(NotificationOutbox.Status.FAILED);
+                continue;
+            }
+            notification.setStatus(NotificationOutbox.Status.PROCESSING);
+            notification.setAttempts(notification.getAttempts() + 1);
+            notification.setNextAttemptAt(leaseUntil);
+            claimed.add(notification);
+        }
+        return claimed;
+    }
+
+    /**
+     * Record a delivery. Returns false when the claim was no longer current, e.g. the lease expired and
+     * another node took the row over; that node's claim then decides the row's outcome.
+     */
+    @Transactional
+    public boolean markSent(NotificationOutbox claimed) {
+        int updated = outboxRepository.markSent(claimed.getId(), claimed.getAttempts(), LocalDateTime.now());
+        if (updated == 0) {
+            log.warn("Notification {} was delivered on attempt {} after its claim was taken over or completed",
+                    claimed.getId(), claimed.getAttempts());
+        }
+        return updated > 0;
+    }
+
+    /**
+     * Schedule a retry with exponential backoff, or give up once max attempts is reached.
+     * Returns false, changing nothing, when the claim was no longer current.
+     */
+    @Transactional
+    public boolean markFailed(NotificationOutbox claimed, String error) {
+        String lastError = error != null && error.length() > 1000 ? error.substring(0, 1000) : error;
+        LocalDateTime now = LocalDateTime.now();
+        boolean giveUp = claimed.getAttempts() >= maxAttempts;
+
+        int updated = giveUp
+                ? outboxRepository.markFailed(claimed.getId(), claimed.getAttempts(),
+                        NotificationOutbox.Status.FAILED.name(), now, lastError)
+                : outboxRepository.markFailed(claimed.getId(), claimed.getAttempts(),
+                        NotificationOutbox.Status.PENDING.name(), now.plus(backoff(claimed.getAttempts())), lastError);
+        if (updated == 0) {
+            log.warn("Ignoring failure of notification {} on attempt {}: its claim was taken over or completed",
+                    claimed.getId(), claimed.getAttempts());
+            return false;
+        }
+        if (giveUp) {
+            log.error("Giving up on notification {} for appointment {} after {} attempts: {}",
+                    claimed.getId(), claimed.getBookingId(), claimed.getAttempts(), error);
+        }
+        return true;
+    }
+
+    private Duration backoff(int attempts) {
+        long seconds = backoffBaseSeconds << Math.min(attempts - 1, 20);
+        return Duration.ofSeconds(Math.min(seconds, backoffMaxSeconds));
+    }
+}
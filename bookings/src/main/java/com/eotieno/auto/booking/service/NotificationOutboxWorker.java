@@ -0,0 +1,87 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the notification outbox in batches on a small worker pool.
+ * Claims use SKIP LOCKED, so any number of booking nodes can run this side by side.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+@ConditionalOnProperty(name = "booking.notifications.worker.enabled", havingValue = "true", matchIfMissing = true)
+public class NotificationOutboxWorker {
+
+    private final NotificationOutboxService outboxService;
+    private final NotificationChannel notificationChannel;
+
+    @Value("${booking.notifications.batch-size:100}")
+    private int batchSize;
+
+    @Value("${booking.notifications.worker-threads:4}")
+    private int workerThreads;
+
+    private ExecutorService executor;
+
+    @PostConstruct
+    void start() {
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newFixedThreadPool(workerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "notification-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${booking.notifications.poll-interval-ms:2000}")
+    public void drain() {
+        List<NotificationOutbox> batch;
+        try {
+            batch = outboxService.claimBatch(batchSize);
+        } catch (Exception e) {
+            log.error("Failed to claim notification batch: {}", e.getMessage());
+            return;
+        }
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // Wait for the batch so the next poll never overlaps with deliveries still in flight
+        CompletableFuture.allOf(batch.stream()
+                        .map(notification -> CompletableFuture.runAsync(() -> deliver(notification), executor))
+                        .toArray(CompletableFuture[]::new))
+                .join();
+
+        log.debug("Processed {} outbox notifications", batch.size());
+    }
+
+    private void deliver(NotificationOutbox notification) {
+        try {
+            notificationChannel.send(notification);
+            outboxService.markSent(notification);
+        } catch (Exception e) {
+            log.warn("Delivery of notification {} (attempt {}) failed: {}",
+                    notification.getId(), notification.getAttempts(), e.getMessage());
+            outboxService.markFailed(notification, e.getMessage());
+        }
+    }
+}
@@ -1,52 +1,67 @@
 package com.eotieno.auto.booking.service;
 
 import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.entity.NotificationOutbox;
 import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.repository.NotificationOutboxRepository;
 import com.eotieno.auto.booking.repository.NotificationService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes customer notifications to the outbox in the caller's transaction.
+ * Delivery happens later in NotificationOutboxWorker, so a slow channel never adds to request latency.
+ */
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class NotificationServiceImpl implements NotificationService {
 
-    // You can inject email service, SMS service, etc. here
-    // private final EmailService emailService;
-    // private final SmsService smsService;
+    private final NotificationOutboxRepository outboxRepository;
 
     @Override
     public void sendStatusUpdateNotification(Booking booking, AppointmentStatus oldStatus, AppointmentStatus newStatus) {
         try {
-            String customerName = booking.getCustomerDetails().getName();
-            String customerPhone = booking.getCustomerDetails().getPhone();
-            String customerEmail = booking.getCustomerDetails().getEmail();
-
-            String message = createStatusUpdateMessage(booking, oldStatus, newStatus);
-
-            log.info("Sending status update notification to {}: {}", customerName, message);
-
-            // Implementation examples:
-            // emailService.sendEmail(customerEmail, "Appointment Status Update", message);
-            // smsService.sendSms(customerPhone, message);
-
-            // For now, just log the notification
-            log.info("Status notification sent to {} ({}): {}", customerName, customerEmail, message);
-
+            outboxRepository.save(statusUpdate(booking, oldStatus, newStatus));
+            log.info("Queued status update notification for appointment {}", booking.getId());
         } catch (Exception e) {
-            log.error("Failed to send status update notification for appointment {}: {}",
+            log.error("Failed to queue status update notification for appointment {}: {}",
                     booking.getId(), e.getMessage());
         }
     }
 
+    @Override
+    public void sendStatusUpdateNotifications(List<Booking> bookings,
+                                              Map<Long, AppointmentStatus> oldStatuses,
+                                              AppointmentStatus newStatus) {
+        List<NotificationOutbox> notifications = new ArrayList<>();
+        for (Booking booking : bookings) {
+            try {
+                notifications.add(statusUpdate(booking, oldStatuses.get(booking.getId()), newStatus));
+            } catch (Exception e) {
+                log.error("Failed to build status update notification for appointment {}: {}",
+                        booking.getId(), e.getMessage());
+            }
+        }
+
+        // One saveAll so the inserts go out as JDBC batches
+        outboxRepository.saveAll(notifications);
+        log.info("Queued {} status update notifications ({})", notifications.size(), newStatus);
+    }
+
     @Override
     public void sendCompletionNotification(Booking booking) {
         try {
             String customerName = booking.getCustomerDetails().getName();
-            String customerEmail = booking.getCustomerDetails().getEmail();
 
             String message = String.format(
                     "Hello %s, your service appointment has been completed successfully. " +
@@ -54,12 +69,10 @@ public class NotificationServiceImpl implements NotificationService {
                     customerName, booking.getTotalAmount()
             );
 
-            log.info("Sending completion notification to {}: {}", customerName, message);
-
-            // emailService.sendEmail(customerEmail, "Service Completed", message);
+            enqueue(booking, NotificationOutbox.Type.COMPLETION, "Service Completed", message);
 
         } catch (Exception e) {
-            log.error("Failed to send completion notification for appointment {}: {}",
+            log.error("Failed to queue completion notification for appointment {}: {}",
                     booking.getId(), e.getMessage());
         }
     }
@@ -68,7 +81,6 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendRescheduleNotification(Booking booking, LocalDate oldDate, LocalTime oldTime) {
         try {
             String customerName = booking.getCustomerDetails().getName();
-            String customerEmail = booking.getCustomerDetails().getEmail();
 
             DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("EEEE, MMMM d, yyyy");
             DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("h:mm a");
@@ -86,12 +98,10 @@ public class NotificationServiceImpl implements NotificationService {
                     booking.getRescheduleReason() != null ? booking.getRescheduleReason() : "Schedule adjustment"
             );
 
-            log.info("Sending reschedule notification to {}: {}", customerName, message);
-
-            // emailService.sendEmail(customerEmail, "Appointment Rescheduled", message);
+            enqueue(booking, NotificationOutbox.Type.RESCHEDULE, "Appointment Rescheduled", message);
 
         } catch (Exception e) {
-            log.error("Failed to send reschedule notification for appointment {}: {}",
+            log.error("Failed to queue reschedule notification for appointment {}: {}",
                     booking.getId(), e.getMessage());
         }
     }
@@ -100,7 +110,6 @@ public class NotificationServiceImpl implements NotificationService {
     public void sendCancellationNotification(Booking booking) {
         try {
             String customerName = booking.getCustomerDetails().getName();
-            String customerEmail = booking.getCustomerDetails().getEmail();
 
             String message = String.format(
                     "Hello %s, your appointment scheduled for %s has been cancelled. " +
@@ -110,12 +119,10 @@ public class NotificationServiceImpl implements NotificationService {
                     booking.getCancelReason() != null ? booking.getCancelReason() : "Schedule conflict"
             );
 
-            log.info("Sending cancellation notification to {}: {}", customerName, message);
-
-            // emailService.sendEmail(customerEmail, "Appointment Cancelled", message);
+            enqueue(booking, NotificationOutbox.Type.CANCELLATION, "Appointment Cancelled", message);
 
         } catch (Exception e) {
-            log.error("Failed to send cancellation notification for appointment {}: {}",
+            log.error("Failed to queue cancellation notification for appointment {}: {}",
                     booking.getId(), e.getMessage());
         }
     }
@@ -123,10 +130,6 @@ public class NotificationServiceImpl implements NotificationService {
     @Override
     public void sendReminderNotification(Booking booking) {
         try {
-            String customerName = booking.getCustomerDetails().getName();
-            String customerEmail = booking.getCustomerDetails().getEmail();
-            String customerPhone = booking.getCustomerDetails().getPhone();
-
             String message = String.format(
                     "Reminder: You have an appointment tomorrow at %s for your vehicle %s. " +
                             "Please arrive on time. Contact us if you need to reschedule.",
@@ -134,17 +137,39 @@ public class NotificationServiceImpl implements NotificationService {
                     booking.getVehicleId()
             );
 
-            log.info("Sending reminder notification to {}: {}", customerName, message);
-
-            // emailService.sendEmail(customerEmail, "Appointment Reminder", message);
-            // smsService.sendSms(customerPhone, message);
+            enqueue(booking, NotificationOutbox.Type.REMINDER, "Appointment Reminder", message);
 
         } catch (Exception e) {
-            log.error("Failed to send reminder notification for appointment {}: {}",
+            log.error("Failed to queue reminder notification for appointment {}: {}",
                     booking.getId(), e.getMessage());
         }
     }
 
+    private void enqueue(Booking booking, NotificationOutbox.Type type, String subject, String message) {
+        outboxRepository.save(outboxEntry(booking, type, subject, message));
+        log.info("Queued {} notification for appointment {}", type, booking.getId());
+    }
+
+    private NotificationOutbox statusUpdate(Booking booking, AppointmentStatus oldStatus, AppointmentStatus newStatus) {
+        return outboxEntry(booking, NotificationOutbox.Type.STATUS_UPDATE, "Appointment Status Update",
+                createStatusUpdateMessage(booking, oldStatus, newStatus));
+    }
+
+    private NotificationOutbox outboxEntry(Booking booking, NotificationOutbox.Type type, String subject, String message) {
+        Booking.CustomerDetails customer = booking.getCustomerDetails();
+        return NotificationOutbox.builder()
+                .bookingId(booking.getId())
+                .type(type)
+                .recipientName(customer.getName())
+                .recipientEmail(customer.getEmail())
+                .recipientPhone(customer.getPhone())
+                .subject(subject)
+                .message(message)
+                .status(NotificationOutbox.Status.PENDING)
+                .nextAttemptAt(LocalDateTime.now())
+                .build();
+    }
+
     private String createStatusUpdateMessage(Booking booking, AppointmentStatus oldStatus, AppointmentStatus newStatus) {
         String customerName = booking.getCustomerDetails().getName();
 
@@ -0,0 +1,93 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.LocationDTO;
+import com.eotieno.auto.booking.dto.serviceProvider.ServiceProviderDetailsDTO;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Provider details from the user service, cached with a TTL and fetched in batch calls of at most
+ * MAX_BATCH_SIZE ids, the most the user service accepts in one request.
+ * Providers that cannot be resolved get a placeholder, which is never cached.
+ */
+@Service
+@Slf4j
+public class ServiceProviderLookupService {
+
+    // Must not exceed MAX_BATCH_SIZE of the user service's /api/service-providers/batch
+    static final int MAX_BATCH_SIZE = 200;
+
+    private final UserServiceClient userServiceClient;
+    private final Cache<String, ServiceProviderDetailsDTO> providerCache;
+
+    public ServiceProviderLookupService(UserServiceClient userServiceClient,
+                                        @Value("${booking.providers.cache-size:10000}") long cacheSize,
+                                        @Value("${booking.providers.cache-ttl-minutes:5}") long cacheTtlMinutes) {
+        this.userServiceClient = userServiceClient;
+        this.providerCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+    }
+
+    /**
+     * Resolve every distinct provider id; the result has an entry for each one
+     */
+    public Map<String, ServiceProviderDetailsDTO> getProviders(Collection<String> providerIds) {
+        Set<String> ids = providerIds.stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+
+        Map<String, ServiceProviderDetailsDTO> providers = new HashMap<>();
+        if (!ids.isEmpty()) {
+            try {
+                providers.putAll(providerCache.getAll(ids, this::fetchProviders));
+            } catch (Exception e) {
+                log.error("Failed to fetch service provider details for {}: {}", ids, e.getMessage());
+                providers.putAll(providerCache.getAllPresent(ids));
+            }
+        }
+
+        ids.forEach(id -> providers.computeIfAbsent(id, this::unknownProvider));
+        return providers;
+    }
+
+    // A failed chunk only leaves its own providers unresolved
+    private Map<String, ServiceProviderDetailsDTO> fetchProviders(Set<? extends String> ids) {
+        List<String> pending = new ArrayList<>(ids);
+        Map<String, ServiceProviderDetailsDTO> providers = new HashMap<>();
+        for (int from = 0; from < pending.size(); from += MAX_BATCH_SIZE) {
+            List<String> chunk = pending.subList(from, Math.min(from + MAX_BATCH_SIZE, pending.size()));
+            try {
+                userServiceClient.getServiceProvidersByIds(new ArrayList<>(chunk))
+                        .forEach(provider -> providers.putIfAbsent(provider.getId(), provider));
+            } catch (Exception e) {
+                log.error("Failed to fetch details for {} service providers: {}", chunk.size(), e.getMessage());
+            }
+        }
+        return providers;
+    }
+
+    private ServiceProviderDetailsDTO unknownProvider(String providerId) {
+        return ServiceProviderDetailsDTO.builder()
+                .id(providerId)
+                .name("Unknown Provider")
+                .phoneNumber("N/A")
+                .email("N/A")
+                .location(new LocationDTO(0.0, 0.0, "Unknown"))
+                .services(List.of("General Service"))
+                .rating(0.0)
+                .workingHours("N/A")
+                .description("Provider details not available")
+                .isVerified(false)
+                .totalReviews(0)
+                .build();
+    }
+}
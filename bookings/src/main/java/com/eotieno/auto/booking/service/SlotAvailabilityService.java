@@ -0,0 +1,227 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.dto.SlotOccupancyProjection;
+import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.repository.BookingRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Answers "which slots are free" from a per mechanic-day bitmap of 15-minute units.
+ * A job that runs past midnight also occupies the start of the next day (jobs longer than that are cut
+ * off at the end of the next day). Bitmaps are cached and dropped after any commit that changes a booking
+ * on that day or the day before; a load that overlapped such an invalidation is served but not cached.
+ */
+@Service
+@Slf4j
+public class SlotAvailabilityService {
+
+    static final int UNIT_MINUTES = 15;
+    static final int UNITS_PER_DAY = 24 * 60 / UNIT_MINUTES;
+    static final int DEFAULT_DURATION_MINUTES = 60;
+    static final int MAX_RANGE_DAYS = 62;
+
+    // Bookings in these states no longer hold their time
+    private static final List<AppointmentStatus> FREE_STATUSES =
+            List.of(AppointmentStatus.CANCELLED, AppointmentStatus.NO_SHOW);
+
+    private static final DateTimeFormatter SLOT_FORMAT = DateTimeFormatter.ofPattern("HH:mm");
+
+    private final BookingRepository bookingRepository;
+    private final Cache<DayKey, long[]> dayCache;
+    // Sequence number of the latest invalidation per day, kept long enough to outlive any load in flight
+    private final Cache<DayKey, Long> invalidatedAt;
+    private final AtomicLong invalidationSequence = new AtomicLong();
+    private final LocalTime openingTime;
+    private final LocalTime lastSlotTime;
+    private final int slotStepMinutes;
+
+    private record DayKey(String mechanicId, LocalDate date) {
+    }
+
+    public SlotAvailabilityService(BookingRepository bookingRepository,
+                                   @Value("${booking.slots.opening-time:08:00}") String openingTime,
+                                   @Value("${booking.slots.last-slot-time:17:00}") String lastSlotTime,
+                                   @Value("${booking.slots.step-minutes:60}") int slotStepMinutes,
+                                   @Value("${booking.slots.cache-size:50000}") long cacheSize,
+                                   @Value("${booking.slots.cache-ttl-minutes:10}") long cacheTtlMinutes) {
+        this.bookingRepository = bookingRepository;
+        this.openingTime = LocalTime.parse(openingTime);
+        this.lastSlotTime = LocalTime.parse(lastSlotTime);
+        this.slotStepMinutes = slotStepMinutes;
+        this.dayCache = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(cacheTtlMinutes))
+                .build();
+        this.invalidatedAt = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(Duration.ofMinutes(1))
+                .build();
+    }
+
+    /**
+     * Free start times on one day for a job of the given length
+     */
+    public List<String> getAvailableSlots(String mechanicId, LocalDate date, Integer durationMinutes) {
+        return getAvailableSlots(mechanicId, date, date, durationMinutes).get(date);
+    }
+
+    /**
+     * Free start times for every day in [from, to]; uncached days are loaded with a single query
+     */
+    public Map<LocalDate, List<String>> getAvailableSlots(String mechanicId, LocalDate from, LocalDate to,
+                                                         Integer durationMinutes) {
+        if (to.isBefore(from) || from.plusDays(MAX_RANGE_DAYS).isBefore(to)) {
+            throw new IllegalArgumentException("Date range must be ordered and at most " + MAX_RANGE_DAYS + " days");
+        }
+        int units = unitsFor(durationMinutes != null && durationMinutes > 0 ? durationMinutes : DEFAULT_DURATION_MINUTES);
+
+        List<DayKey> keys = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            keys.add(new DayKey(mechanicId, date));
+        }
+        Map<DayKey, long[]> days = new HashMap<>(dayCache.getAllPresent(keys));
+        Set<DayKey> missing = new HashSet<>(keys);
+        missing.removeAll(days.keySet());
+        if (!missing.isEmpty()) {
+            long loadStartedAt = invalidationSequence.get();
+            Map<DayKey, long[]> loaded = loadDays(missing);
+            days.putAll(loaded);
+            loaded.forEach((key, day) -> cacheUnlessInvalidatedSince(key, day, loadStartedAt));
+        }
+
+        Map<LocalDate, List<String>> result = new LinkedHashMap<>();
+        for (DayKey key : keys) {
+            result.put(key.date(), freeSlots(days.get(key), units));
+        }
+        return result;
+    }
+
+    /**
+     * Drop cached days once the current transaction commits (or right away outside one)
+     */
+    public void invalidate(String mechanicId, LocalDate... dates) {
+        if (mechanicId == null) {
+            return;
+        }
+        // The next day too, which a job running past midnight also occupies
+        List<DayKey> keys = Arrays.stream(dates)
+                .filter(Objects::nonNull)
+                .flatMap(date -> Stream.of(date, date.plusDays(1)))
+                .distinct()
+                .map(date -> new DayKey(mechanicId, date))
+                .toList();
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(keys);
+                }
+            });
+        } else {
+            evict(keys);
+        }
+    }
+
+    public void invalidate(Booking booking) {
+        invalidate(booking.getServiceProviderId(), booking.getPreferredDate());
+    }
+
+    // Stamp first, then evict: a load racing with this either sees the stamp or has its entry evicted after
+    private void evict(List<DayKey> keys) {
+        long sequence = invalidationSequence.incrementAndGet();
+        keys.forEach(key -> invalidatedAt.put(key, sequence));
+        dayCache.invalidateAll(keys);
+    }
+
+    // A day loaded before an invalidation finished may predate the commit behind it, so it is not cached
+    private void cacheUnlessInvalidatedSince(DayKey key, long[] day, long loadStartedAt) {
+        dayCache.asMap().compute(key, (k, cached) -> {
+            Long invalidated = invalidatedAt.getIfPresent(k);
+            if (cached != null || (invalidated != null && invalidated > loadStartedAt)) {
+                return cached;
+            }
+            return day;
+        });
+    }
+
+    private Map<DayKey, long[]> loadDays(Set<DayKey> keys) {
+        String mechanicId = keys.iterator().next().mechanicId();
+        LocalDate from = keys.stream().map(DayKey::date).min(Comparator.naturalOrder()).orElseThrow();
+        LocalDate to = keys.stream().map(DayKey::date).max(Comparator.naturalOrder()).orElseThrow();
+
+        Map<DayKey, long[]> days = new HashMap<>();
+        keys.forEach(key -> days.put(key, new long[2]));
+
+        // From the day before, whose late jobs can run into the first requested morning
+        for (SlotOccupancyProjection booking :
+                bookingRepository.findSlotOccupancy(mechanicId, from.minusDays(1), to, FREE_STATUSES)) {
+            int start = booking.getPreferredTime().toSecondOfDay() / 60 / UNIT_MINUTES;
+            int duration = booking.getEstimatedDuration() != null && booking.getEstimatedDuration() > 0
+                    ? booking.getEstimatedDuration() : DEFAULT_DURATION_MINUTES;
+            int end = start + unitsFor(duration);
+
+            // Days inside [from, to] that are already cached are absent here and skipped
+            long[] day = days.get(new DayKey(mechanicId, booking.getPreferredDate()));
+            if (day != null) {
+                mark(day, start, Math.min(end, UNITS_PER_DAY));
+            }
+            long[] nextDay = days.get(new DayKey(mechanicId, booking.getPreferredDate().plusDays(1)));
+            if (nextDay != null && end > UNITS_PER_DAY) {
+                mark(nextDay, 0, Math.min(end - UNITS_PER_DAY, UNITS_PER_DAY));
+            }
+        }
+        return days;
+    }
+
+    private List<String> freeSlots(long[] day, int units) {
+        List<String> slots = new ArrayList<>();
+        for (LocalTime slot = openingTime; !slot.isAfter(lastSlotTime); slot = slot.plusMinutes(slotStepMinutes)) {
+            int start = slot.toSecondOfDay() / 60 / UNIT_MINUTES;
+            if (start + units <= UNITS_PER_DAY && isFree(day, start, start + units)) {
+                slots.add(slot.format(SLOT_FORMAT));
+            }
+            if (slot.plusMinutes(slotStepMinutes).isBefore(slot)) {
+                break; // wrapped past midnight
+            }
+        }
+        return slots;
+    }
+
+    private static int unitsFor(int minutes) {
+        return (minutes + UNIT_MINUTES - 1) / UNIT_MINUTES;
+    }
+
+    private static void mark(long[] day, int fromUnit, int toUnit) {
+        for (int unit = fromUnit; unit < toUnit; unit++) {
+            day[unit >>> 6] |= 1L << (unit & 63);
+        }
+    }
+
+    private static boolean isFree(long[] day, int fromUnit, int toUnit) {
+        for (int unit = fromUnit; unit < toUnit; unit++) {
+            if ((day[unit >>> 6] & (1L << (unit & 63))) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -3,6 +3,7 @@ package com.eotieno.auto.booking.service;
 
 import com.eotieno.auto.booking.dto.AuthRequest;
 import com.eotieno.auto.booking.dto.AuthResponse;
+import com.eotieno.auto.booking.dto.RefreshTokenRequest;
 import com.eotieno.auto.booking.dto.UserDto;
 import com.eotieno.auto.booking.dto.serviceProvider.ServiceProviderDetailsDTO;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -11,6 +12,7 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
 import java.util.Set;
 
 @FeignClient(name = "user-service", url = "${user.service.url}")
@@ -19,6 +21,10 @@ public interface UserServiceClient {
     @PostMapping("/api/auth/login")
     AuthResponse authenticate(@RequestBody AuthRequest request);
 
+    // Rotates the refresh token; no password check on the user service side
+    @PostMapping("/api/auth/refresh")
+    AuthResponse refresh(@RequestBody RefreshTokenRequest request);
+
     // Check if user exists
     @GetMapping("/api/users/{userId}/exists")
     boolean userExists(@PathVariable Long userId);
@@ -37,6 +43,10 @@ public interface UserServiceClient {
     @GetMapping("/api/service-providers/{userId}")
     ServiceProviderDetailsDTO getServiceProviderById(@PathVariable("userId") String userId);
 
+    // One round trip for all providers on a page; unknown ids are simply missing from the result
+    @PostMapping("/api/service-providers/batch")
+    List<ServiceProviderDetailsDTO> getServiceProvidersByIds(@RequestBody List<String> ids);
+
 
 
 
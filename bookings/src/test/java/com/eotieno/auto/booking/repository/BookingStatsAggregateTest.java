@@ -0,0 +1,126 @@
+package com.eotieno.auto.booking.repository;
+
+import com.eotieno.auto.booking.dto.AppointmentStatsProjection;
+import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.entity.Booking;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.EnumMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Runs the dashboard stats aggregate over a mechanic with 10k bookings and checks that it is one
+ * statement and that every counter matches the same figures computed from the seeded rows.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+class BookingStatsAggregateTest {
+
+    private static final int BOOKINGS = 10_000;
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 30);
+    private static final LocalDate WEEK_START = TODAY.minusWeeks(1);
+    private static final AppointmentStatus[] STATUSES = AppointmentStatus.values();
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final Map<AppointmentStatus, Long> expectedByStatus = new EnumMap<>(AppointmentStatus.class);
+    private long expectedToday;
+    private BigDecimal expectedRevenue = BigDecimal.ZERO;
+    private long ratingSum;
+    private long ratingCount;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < BOOKINGS; i++) {
+            AppointmentStatus status = STATUSES[i % STATUSES.length];
+            LocalDate date = TODAY.minusDays(i % 60);
+            Integer rating = i % 3 == 0 ? i % 5 + 1 : null;
+            BigDecimal amount = BigDecimal.valueOf(1000 + i % 250);
+
+            entityManager.persist(booking("mech-busy", i, status, date, rating, amount));
+            expectedByStatus.merge(status, 1L, Long::sum);
+            if (date.equals(TODAY)) {
+                expectedToday++;
+            }
+            if (status == AppointmentStatus.COMPLETED && !date.isBefore(WEEK_START)) {
+                expectedRevenue = expectedRevenue.add(amount);
+            }
+            if (rating != null) {
+                ratingSum += rating;
+                ratingCount++;
+            }
+            if (i % 500 == 499) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+        // Another mechanic's bookings must not leak into the figures
+        for (int i = 0; i < 50; i++) {
+            entityManager.persist(booking("mech-other", i, AppointmentStatus.COMPLETED, TODAY, 1,
+                    BigDecimal.valueOf(99_999)));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void aggregateIsOneStatementWithCorrectFigures() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        AppointmentStatsProjection stats = bookingRepository.aggregateStatsByServiceProviderId(
+                "mech-busy", TODAY, WEEK_START, TODAY);
+
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(BOOKINGS, stats.getTotalAppointments());
+        assertEquals(expected(AppointmentStatus.PENDING), stats.getPendingCount());
+        assertEquals(expected(AppointmentStatus.CONFIRMED), stats.getConfirmedCount());
+        assertEquals(expected(AppointmentStatus.IN_PROGRESS), stats.getInProgressCount());
+        assertEquals(expected(AppointmentStatus.COMPLETED), stats.getCompletedCount());
+        assertEquals(expected(AppointmentStatus.CANCELLED), stats.getCancelledCount());
+        assertEquals(expected(AppointmentStatus.NO_SHOW), stats.getNoShowCount());
+        assertEquals(expectedToday, stats.getTodayAppointments());
+        assertEquals(0, expectedRevenue.compareTo(stats.getRevenue()),
+                () -> "revenue " + stats.getRevenue() + " != " + expectedRevenue);
+        assertEquals((double) ratingSum / ratingCount, stats.getAverageRating(), 1e-9);
+    }
+
+    private long expected(AppointmentStatus status) {
+        return expectedByStatus.getOrDefault(status, 0L);
+    }
+
+    private Booking booking(String mechanicId, int i, AppointmentStatus status, LocalDate date,
+                            Integer rating, BigDecimal amount) {
+        return Booking.builder()
+                .vehicleId("veh-" + i % 400)
+                .customerId("cust-" + i % 900)
+                .serviceProviderId(mechanicId)
+                .preferredDate(date)
+                .preferredTime(LocalTime.of(8 + i % 9, 0))
+                .status(status)
+                .customerRating(rating)
+                .totalAmount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.AppointmentDto;
+import com.eotieno.auto.booking.dto.AppointmentPageDto;
+import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.entity.AppointmentNote;
+import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.repository.NotificationService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Counts the SQL statements Hibernate actually prepares for the list endpoints,
+ * so a lazy-collection N+1 coming back through entity mapping fails the build.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Import(AppointmentService.class)
+class AppointmentListQueryCountTest {
+
+    @Autowired
+    private AppointmentService appointmentService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @MockitoBean
+    private NotificationService notificationService;
+
+    @MockitoBean
+    private MechanicStatsService mechanicStatsService;
+
+    @MockitoBean
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        persistBookings("mech-small", "veh-small", 3);
+        persistBookings("mech-large", "veh-large", 30);
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Test
+    void mechanicListingStatementCountDoesNotGrowWithPageSize() {
+        long small = statementsFor(() -> appointmentService.getMechanicAppointments(
+                "mech-small", null, null, null, 50, null, null).getAppointments());
+        long large = statementsFor(() -> appointmentService.getMechanicAppointments(
+                "mech-large", null, null, null, 50, null, null).getAppointments());
+
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void vehicleHistoryStatementCountDoesNotGrowWithHistoryLength() {
+        long small = statementsFor(() -> appointmentService.getVehicleAppointmentHistory("veh-small"));
+        long large = statementsFor(() -> appointmentService.getVehicleAppointmentHistory("veh-large"));
+
+        assertEquals(2, small);
+        assertEquals(small, large);
+    }
+
+    @Test
+    void cursorPagesWalkEveryAppointmentOnceNewestFirst() {
+        List<Long> walked = new ArrayList<>();
+        String cursor = null;
+        do {
+            AppointmentPageDto page = appointmentService.getMechanicAppointments(
+                    "mech-large", null, null, null, 7, null, cursor);
+            page.getAppointments().forEach(appointment -> walked.add(appointment.getId()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        List<Long> expected = appointmentService.getVehicleAppointmentHistory("veh-large").stream()
+                .map(AppointmentDto::getId)
+                .collect(Collectors.toList());
+        assertEquals(30, walked.size());
+        assertEquals(expected, walked);
+    }
+
+    @Test
+    void legacyOffsetReturnsTheSamePageAsTheCursor() {
+        AppointmentPageDto first = appointmentService.getMechanicAppointments(
+                "mech-large", null, null, null, 7, null, null);
+        AppointmentPageDto byCursor = appointmentService.getMechanicAppointments(
+                "mech-large", null, null, null, 7, null, first.getNextCursor());
+        AppointmentPageDto byOffset = appointmentService.getMechanicAppointments(
+                "mech-large", null, null, null, 7, 7, null);
+
+        assertEquals(ids(byCursor), ids(byOffset));
+        assertEquals(byCursor.getNextCursor(), byOffset.getNextCursor());
+    }
+
+    private List<Long> ids(AppointmentPageDto page) {
+        return page.getAppointments().stream().map(AppointmentDto::getId).collect(Collectors.toList());
+    }
+
+    private long statementsFor(Supplier<List<AppointmentDto>> listCall) {
+        entityManager.clear();
+        statistics.clear();
+
+        List<AppointmentDto> appointments = listCall.get();
+
+        long statements = statistics.getPrepareStatementCount();
+        appointments.forEach(appointment -> assertEquals(2, appointment.getServiceNotes().size()));
+        return statements;
+    }
+
+    private void persistBookings(String mechanicId, String vehicleId, int count) {
+        for (int i = 0; i < count; i++) {
+            Booking booking = entityManager.persist(Booking.builder()
+                    .vehicleId(vehicleId)
+                    .customerId("cust-" + i)
+                    .serviceProviderId(mechanicId)
+                    .preferredDate(LocalDate.of(2025, 6, 2).plusDays(i))
+                    .preferredTime(LocalTime.of(9, 0))
+                    .status(AppointmentStatus.CONFIRMED)
+                    .build());
+            entityManager.persist(note(booking, "Checked in"));
+            entityManager.persist(note(booking, "Pads worn"));
+        }
+    }
+
+    private AppointmentNote note(Booking booking, String text) {
+        return AppointmentNote.builder()
+                .booking(booking)
+                .note(text)
+                .createdBy("mech")
+                .build();
+    }
+}
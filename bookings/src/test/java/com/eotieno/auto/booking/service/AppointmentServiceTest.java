@@ -0,0 +1,198 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.AppointmentDto;
+import com.eotieno.auto.booking.dto.AppointmentPageDto;
+import com.eotieno.auto.booking.dto.AppointmentStatus;
+import com.eotieno.auto.booking.dto.BulkStatusUpdateResultDto;
+import com.eotieno.auto.booking.entity.AppointmentNote;
+import com.eotieno.auto.booking.entity.Booking;
+import com.eotieno.auto.booking.exceptions.BadRequestException;
+import com.eotieno.auto.booking.repository.AppointmentNoteRepository;
+import com.eotieno.auto.booking.repository.BookingRepository;
+import com.eotieno.auto.booking.repository.NotificationService;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AppointmentServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private AppointmentNoteRepository appointmentNoteRepository;
+
+    @Mock
+    private NotificationService notificationService;
+
+    @Mock
+    private MechanicStatsService mechanicStatsService;
+
+    @Mock
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private AppointmentService appointmentService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void listPathsLoadNotesWithOneQueryPerCall() {
+        List<AppointmentNote> lazyNotes = mock(List.class);
+        Booking first = booking(1L, lazyNotes);
+        Booking second = booking(2L, lazyNotes);
+        Booking third = booking(3L, lazyNotes);
+
+        when(bookingRepository.findMechanicAppointmentsFirstPage(eq("mech-1"), any(), any(), any(), any()))
+                .thenReturn(List.of(first, second, third));
+        when(bookingRepository.searchAppointments("mech-1", "brake", 20, 0))
+                .thenReturn(List.of(first, second, third));
+        when(appointmentNoteRepository.findByBookingIdIn(anyCollection()))
+                .thenReturn(List.of(note(first, "Pads worn"), note(first, "Rotors ok"), note(third, "Called customer")));
+
+        AppointmentPageDto page = appointmentService.getMechanicAppointments(
+                "mech-1", AppointmentStatus.CONFIRMED, null, null, 10, null, null);
+        List<AppointmentDto> found = appointmentService.searchAppointments("mech-1", "Brake ", 0, 20);
+
+        // One bookings query and one notes query per list call, and the lazy collections are never touched
+        verify(bookingRepository, times(1)).findMechanicAppointmentsFirstPage(
+                eq("mech-1"), any(), any(), any(), any());
+        verify(bookingRepository, times(1)).searchAppointments("mech-1", "brake", 20, 0);
+        verify(bookingRepository).setWordSimilarityThreshold(anyString());
+        verify(appointmentNoteRepository, times(2)).findByBookingIdIn(List.of(1L, 2L, 3L));
+        verifyNoMoreInteractions(bookingRepository, appointmentNoteRepository);
+        verifyNoInteractions(lazyNotes);
+
+        for (List<AppointmentDto> appointments : List.of(page.getAppointments(), found)) {
+            assertEquals(2, appointments.get(0).getServiceNotes().size());
+            assertTrue(appointments.get(1).getServiceNotes().isEmpty());
+            assertEquals("Called customer", appointments.get(2).getServiceNotes().get(0).getNote());
+        }
+    }
+
+    @Test
+    void searchTermsShorterThanATrigramAreRejected() {
+        assertThrows(BadRequestException.class, () -> appointmentService.searchAppointments("mech-1", " ab ", 0, 20));
+        verifyNoInteractions(bookingRepository, appointmentNoteRepository);
+    }
+
+    @Test
+    void emptyListSkipsNotesQuery() {
+        when(bookingRepository.findByVehicleIdOrderByPreferredDateDesc("veh-1")).thenReturn(List.of());
+
+        assertTrue(appointmentService.getVehicleAppointmentHistory("veh-1").isEmpty());
+        verifyNoInteractions(appointmentNoteRepository);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void bulkUpdateReportsEveryIdAndActsOnlyOnRowsActuallyChanged() {
+        Booking pending = booking(1L, AppointmentStatus.PENDING);
+        Booking movedByOtherRequest = booking(2L, AppointmentStatus.PENDING);
+        Booking alreadyConfirmed = booking(3L, AppointmentStatus.CONFIRMED);
+        Booking onHold = booking(5L, AppointmentStatus.ON_HOLD);
+
+        when(bookingRepository.findAllById(List.of(1L, 2L, 3L, 4L, 5L)))
+                .thenReturn(List.of(pending, movedByOtherRequest, alreadyConfirmed, onHold));
+        // Appointment 2 left PENDING between the read and the UPDATE, so RETURNING leaves it out
+        when(bookingRepository.bulkUpdateStatus(eq(List.of(1L, 2L)), eq("PENDING"), eq("CONFIRMED"), any()))
+                .thenReturn(List.of(1L));
+        when(bookingRepository.bulkUpdateStatus(eq(List.of(5L)), eq("ON_HOLD"), eq("CONFIRMED"), any()))
+                .thenReturn(List.of(5L));
+
+        BulkStatusUpdateResultDto result = appointmentService.bulkUpdateAppointmentStatus(
+                Arrays.asList(1L, 2L, 3L, 4L, 5L, 1L, null), AppointmentStatus.CONFIRMED);
+
+        assertEquals(3, result.getUpdated());
+        assertEquals(List.of(1L, 3L, 5L), result.getUpdatedIds());
+        assertEquals(List.of(
+                new BulkStatusUpdateResultDto.FailedUpdate(2L, "Appointment status was changed concurrently"),
+                new BulkStatusUpdateResultDto.FailedUpdate(4L, "Appointment not found")), result.getFailed());
+
+        // Pending changes are flushed before the native UPDATE and the stale copies detached after it
+        InOrder order = inOrder(entityManager, bookingRepository);
+        order.verify(entityManager).flush();
+        order.verify(bookingRepository, times(2)).bulkUpdateStatus(anyCollection(), anyString(), anyString(), any());
+        order.verify(entityManager).clear();
+
+        ArgumentCaptor<List<Booking>> notified = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Map<Long, AppointmentStatus>> oldStatuses = ArgumentCaptor.forClass(Map.class);
+        verify(notificationService).sendStatusUpdateNotifications(
+                notified.capture(), oldStatuses.capture(), eq(AppointmentStatus.CONFIRMED));
+        assertEquals(Set.of(1L, 5L), notified.getValue().stream().map(Booking::getId).collect(Collectors.toSet()));
+        assertEquals(Map.of(1L, AppointmentStatus.PENDING, 5L, AppointmentStatus.ON_HOLD), oldStatuses.getValue());
+
+        ArgumentCaptor<List<MechanicStatsService.Snapshot>> removed = ArgumentCaptor.forClass(List.class);
+        verify(mechanicStatsService).recordChanges(removed.capture(), anyList());
+        assertEquals(2, removed.getValue().size());
+        verify(slotAvailabilityService).invalidate(pending);
+        verify(slotAvailabilityService).invalidate(onHold);
+        verifyNoMoreInteractions(slotAvailabilityService);
+        verify(bookingRepository, never()).bulkStartWork(anyCollection(), anyString(), anyString(), any());
+    }
+
+    @Test
+    void bulkUpdateSkipsTheWriteWhenNothingChanges() {
+        when(bookingRepository.findAllById(List.of(3L))).thenReturn(List.of(booking(3L, AppointmentStatus.CONFIRMED)));
+
+        BulkStatusUpdateResultDto result = appointmentService.bulkUpdateAppointmentStatus(
+                List.of(3L), AppointmentStatus.CONFIRMED);
+
+        assertEquals(List.of(3L), result.getUpdatedIds());
+        assertTrue(result.getFailed().isEmpty());
+        verify(bookingRepository).findAllById(List.of(3L));
+        verifyNoMoreInteractions(bookingRepository);
+        verifyNoInteractions(entityManager, notificationService, mechanicStatsService);
+    }
+
+    private Booking booking(Long id, AppointmentStatus status) {
+        return Booking.builder()
+                .id(id)
+                .serviceProviderId("mech-1")
+                .preferredDate(LocalDate.of(2025, 6, 2))
+                .preferredTime(LocalTime.of(9, 0))
+                .status(status)
+                .build();
+    }
+
+    private Booking booking(Long id, List<AppointmentNote> notes) {
+        return Booking.builder()
+                .id(id)
+                .serviceProviderId("mech-1")
+                .preferredDate(LocalDate.of(2025, 6, 2))
+                .preferredTime(LocalTime.of(9, 0))
+                .status(AppointmentStatus.CONFIRMED)
+                .notes(notes)
+                .build();
+    }
+
+    private AppointmentNote note(Booking booking, String text) {
+        return AppointmentNote.builder()
+                .booking(booking)
+                .note(text)
+                .createdBy("mech-1")
+                .build();
+    }
+}
@@ -0,0 +1,198 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.entity.NotificationOutbox;
+import com.eotieno.auto.booking.repository.NotificationOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Drives the outbox through claim, delivery, retry and give-up against a real database, with the
+ * logging channel as the sink. Every service call commits, as it does when the worker runs.
+ */
+@DataJpaTest(properties = {
+        "spring.test.database.replace=none",
+        "spring.datasource.url=jdbc:h2:mem:outbox;MODE=PostgreSQL;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "booking.notifications.lease-seconds=120",
+        "booking.notifications.max-attempts=3",
+        "booking.notifications.backoff-base-seconds=30",
+        "booking.notifications.backoff-max-seconds=3600"
+})
+@Import(NotificationOutboxService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class NotificationOutboxTest {
+
+    @Autowired
+    private NotificationOutboxService outboxService;
+
+    @Autowired
+    private NotificationOutboxRepository outboxRepository;
+
+    private LoggingNotificationChannel channel;
+    private NotificationOutboxWorker worker;
+
+    @BeforeEach
+    void setUp() {
+        channel = spy(new LoggingNotificationChannel());
+        worker = new NotificationOutboxWorker(outboxService, channel);
+        ReflectionTestUtils.setField(worker, "batchSize", 10);
+        ReflectionTestUtils.setField(worker, "workerThreads", 2);
+        worker.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        worker.stop();
+        outboxRepository.deleteAll();
+    }
+
+    @Test
+    void claimLeasesDueRowsToOneCaller() {
+        Long first = enqueue(LocalDateTime.now().minusSeconds(5));
+        Long second = enqueue(LocalDateTime.now().minusSeconds(1));
+        enqueue(LocalDateTime.now().plusMinutes(10));
+
+        List<NotificationOutbox> claimed = outboxService.claimBatch(10);
+
+        assertEquals(List.of(first, second), claimed.stream().map(NotificationOutbox::getId).toList());
+        for (NotificationOutbox notification : claimed) {
+            NotificationOutbox row = reload(notification.getId());
+            assertEquals(NotificationOutbox.Status.PROCESSING, row.getStatus());
+            assertEquals(1, row.getAttempts());
+            assertAbout(Duration.ofSeconds(120), row.getNextAttemptAt());
+        }
+        // Leased rows are not due again until the lease runs out
+        assertTrue(outboxService.claimBatch(10).isEmpty());
+    }
+
+    @Test
+    void deliveredNotificationIsMarkedSent() throws Exception {
+        Long id = enqueue(LocalDateTime.now().minusSeconds(1));
+
+        worker.drain();
+
+        verify(channel).send(any());
+        NotificationOutbox row = reload(id);
+        assertEquals(NotificationOutbox.Status.SENT, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertNotNull(row.getSentAt());
+    }
+
+    @Test
+    void failedDeliveryIsRetriedWithExponentialBackoff() throws Exception {
+        doThrow(new IllegalStateException("smtp down")).when(channel).send(any());
+        Long id = enqueue(LocalDateTime.now().minusSeconds(1));
+
+        worker.drain();
+
+        NotificationOutbox row = reload(id);
+        assertEquals(NotificationOutbox.Status.PENDING, row.getStatus());
+        assertEquals(1, row.getAttempts());
+        assertEquals("smtp down", row.getLastError());
+        assertAbout(Duration.ofSeconds(30), row.getNextAttemptAt());
+
+        // Not due yet, so nothing is sent until the backoff has passed
+        worker.drain();
+        verify(channel, times(1)).send(any());
+
+        makeDue(id);
+        worker.drain();
+
+        row = reload(id);
+        assertEquals(2, row.getAttempts());
+        assertAbout(Duration.ofSeconds(60), row.getNextAttemptAt());
+    }
+
+    @Test
+    void deliveryIsAbandonedAtMaxAttempts() throws Exception {
+        doThrow(new IllegalStateException("mailbox full")).when(channel).send(any());
+        Long id = enqueue(LocalDateTime.now().minusSeconds(1));
+
+        for (int attempt = 1; attempt <= 3; attempt++) {
+            worker.drain();
+            makeDue(id);
+        }
+        worker.drain();
+
+        NotificationOutbox row = reload(id);
+        assertEquals(NotificationOutbox.Status.FAILED, row.getStatus());
+        assertEquals(3, row.getAttempts());
+        assertEquals("mailbox full", row.getLastError());
+        verify(channel, times(3)).send(any());
+    }
+
+    @Test
+    void staleCompletionAfterLeaseTakeoverChangesNothing() {
+        Long id = enqueue(LocalDateTime.now().minusSeconds(1));
+        NotificationOutbox slowClaim = outboxService.claimBatch(10).get(0);
+
+        // The slow sender outlives its lease and another node takes the row over
+        makeDue(id);
+        NotificationOutbox takeover = outboxService.claimBatch(10).get(0);
+        assertEquals(2, takeover.getAttempts());
+
+        assertFalse(outboxService.markFailed(slowClaim, "timed out"));
+        assertFalse(outboxService.markSent(slowClaim));
+        NotificationOutbox row = reload(id);
+        assertEquals(NotificationOutbox.Status.PROCESSING, row.getStatus());
+        assertEquals(2, row.getAttempts());
+
+        assertTrue(outboxService.markSent(takeover));
+
+        // A late failure from the old claim can no longer send a delivered row out again
+        assertFalse(outboxService.markFailed(slowClaim, "timed out"));
+        row = reload(id);
+        assertEquals(NotificationOutbox.Status.SENT, row.getStatus());
+        assertNull(row.getLastError());
+        assertTrue(outboxService.claimBatch(10).isEmpty());
+    }
+
+    private Long enqueue(LocalDateTime nextAttemptAt) {
+        return outboxRepository.save(NotificationOutbox.builder()
+                .bookingId(42L)
+                .type(NotificationOutbox.Type.STATUS_UPDATE)
+                .recipientName("Jane")
+                .recipientEmail("jane@example.com")
+                .subject("Appointment Status Update")
+                .message("Your appointment is confirmed")
+                .status(NotificationOutbox.Status.PENDING)
+                .nextAttemptAt(nextAttemptAt)
+                .build()).getId();
+    }
+
+    // Stands in for the clock moving past the backoff or lease
+    private void makeDue(Long id) {
+        NotificationOutbox row = reload(id);
+        row.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+        outboxRepository.save(row);
+    }
+
+    private NotificationOutbox reload(Long id) {
+        return outboxRepository.findById(id).orElseThrow();
+    }
+
+    private void assertAbout(Duration expected, LocalDateTime actual) {
+        Duration fromNow = Duration.between(LocalDateTime.now(), actual);
+        assertTrue(fromNow.compareTo(expected.minusSeconds(5)) > 0 && fromNow.compareTo(expected) <= 0,
+                () -> "expected about " + expected + " from now, was " + fromNow);
+    }
+}
@@ -0,0 +1,78 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.serviceProvider.ServiceProviderDetailsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class ServiceProviderLookupServiceTest {
+
+    private UserServiceClient userServiceClient;
+    private ServiceProviderLookupService lookupService;
+
+    @BeforeEach
+    void setUp() {
+        userServiceClient = mock(UserServiceClient.class);
+        lookupService = new ServiceProviderLookupService(userServiceClient, 1000, 5);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void largeLookupsAreSplitIntoBatchesTheUserServiceAccepts() {
+        when(userServiceClient.getServiceProvidersByIds(anyList())).thenAnswer(invocation ->
+                ((List<String>) invocation.getArgument(0)).stream().map(this::provider).collect(Collectors.toList()));
+        List<String> ids = ids(450);
+
+        Map<String, ServiceProviderDetailsDTO> providers = lookupService.getProviders(ids);
+
+        ArgumentCaptor<List<String>> batches = ArgumentCaptor.forClass(List.class);
+        verify(userServiceClient, times(3)).getServiceProvidersByIds(batches.capture());
+        assertEquals(List.of(200, 200, 50), batches.getAllValues().stream().map(List::size).toList());
+        assertEquals(450, providers.size());
+        assertTrue(providers.values().stream().allMatch(provider -> provider.getName().startsWith("Garage ")));
+
+        // Everything is cached now
+        lookupService.getProviders(ids);
+        verifyNoMoreInteractions(userServiceClient);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void failedBatchOnlyLeavesItsOwnProvidersUnknown() {
+        when(userServiceClient.getServiceProvidersByIds(anyList()))
+                .thenAnswer(invocation -> ((List<String>) invocation.getArgument(0)).stream()
+                        .map(this::provider).collect(Collectors.toList()))
+                .thenThrow(new IllegalStateException("user service unavailable"));
+
+        Map<String, ServiceProviderDetailsDTO> providers = lookupService.getProviders(ids(250));
+
+        assertEquals("Garage p-0", providers.get("p-0").getName());
+        assertEquals("Garage p-199", providers.get("p-199").getName());
+        assertEquals("Unknown Provider", providers.get("p-200").getName());
+
+        // Placeholders are not cached, so the failed batch is asked for again
+        lookupService.getProviders(List.of("p-0", "p-200"));
+        verify(userServiceClient).getServiceProvidersByIds(List.of("p-200"));
+    }
+
+    private List<String> ids(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "p-" + i).collect(Collectors.toList());
+    }
+
+    private ServiceProviderDetailsDTO provider(String id) {
+        return ServiceProviderDetailsDTO.builder()
+                .id(id)
+                .name("Garage " + id)
+                .build();
+    }
+}
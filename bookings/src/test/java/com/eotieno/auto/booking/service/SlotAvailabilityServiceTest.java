@@ -0,0 +1,113 @@
+package com.eotieno.auto.booking.service;
+
+import com.eotieno.auto.booking.dto.SlotOccupancyProjection;
+import com.eotieno.auto.booking.repository.BookingRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SlotAvailabilityServiceTest {
+
+    private static final LocalDate MONDAY = LocalDate.of(2025, 6, 2);
+
+    private BookingRepository bookingRepository;
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        slotAvailabilityService = new SlotAvailabilityService(bookingRepository, "08:00", "17:00", 60, 1000, 10);
+    }
+
+    @Test
+    void multiHourJobsBlockEveryOverlappingSlot() {
+        when(bookingRepository.findSlotOccupancy(eq("mech-1"), any(), any(), anyCollection()))
+                .thenReturn(List.of(occupied(MONDAY, "09:00", 120), occupied(MONDAY, "14:30", null)));
+
+        // 09:00-11:00 and 14:30-15:30 are taken
+        assertEquals(List.of("08:00", "11:00", "12:00", "13:00", "16:00", "17:00"),
+                slotAvailabilityService.getAvailableSlots("mech-1", MONDAY, 60));
+        assertEquals(List.of("11:00", "12:00", "13:00", "16:00", "17:00"),
+                slotAvailabilityService.getAvailableSlots("mech-1", MONDAY, 90));
+    }
+
+    @Test
+    void rangeIsLoadedOnceAndServedFromCache() {
+        when(bookingRepository.findSlotOccupancy(eq("mech-1"), any(), any(), anyCollection()))
+                .thenReturn(List.of(occupied(MONDAY.plusDays(1), "08:00", 480)));
+
+        Map<LocalDate, List<String>> week =
+                slotAvailabilityService.getAvailableSlots("mech-1", MONDAY, MONDAY.plusDays(6), 60);
+        slotAvailabilityService.getAvailableSlots("mech-1", MONDAY.plusDays(2), 60);
+
+        assertEquals(7, week.size());
+        assertEquals(10, week.get(MONDAY).size());
+        assertEquals(List.of("16:00", "17:00"), week.get(MONDAY.plusDays(1)));
+        verify(bookingRepository, times(1)).findSlotOccupancy(any(), any(), any(), anyCollection());
+
+        slotAvailabilityService.invalidate("mech-1", MONDAY.plusDays(1));
+        assertEquals(List.of("16:00", "17:00"), slotAvailabilityService.getAvailableSlots("mech-1", MONDAY.plusDays(1), 60));
+        verify(bookingRepository, times(2)).findSlotOccupancy(any(), any(), any(), anyCollection());
+    }
+
+    @Test
+    void jobRunningPastMidnightBlocksTheNextMorning() {
+        // 22:00 Monday for eleven hours, so the mechanic is busy until 09:00 Tuesday
+        when(bookingRepository.findSlotOccupancy(eq("mech-1"), any(), any(), anyCollection()))
+                .thenReturn(List.of(occupied(MONDAY, "22:00", 660)));
+
+        List<String> tuesday = slotAvailabilityService.getAvailableSlots("mech-1", MONDAY.plusDays(1), 60);
+
+        assertEquals("09:00", tuesday.get(0));
+        assertEquals(9, tuesday.size());
+        // The day before the range is read as well, since its jobs can spill into it
+        verify(bookingRepository).findSlotOccupancy(eq("mech-1"), eq(MONDAY), eq(MONDAY.plusDays(1)), anyCollection());
+    }
+
+    @Test
+    void changingADayAlsoDropsTheNextDay() {
+        when(bookingRepository.findSlotOccupancy(eq("mech-1"), any(), any(), anyCollection()))
+                .thenReturn(List.of(occupied(MONDAY, "22:00", 660)))
+                .thenReturn(List.of());
+        slotAvailabilityService.getAvailableSlots("mech-1", MONDAY.plusDays(1), 60);
+
+        // The late Monday job was cancelled
+        slotAvailabilityService.invalidate("mech-1", MONDAY);
+
+        assertEquals("08:00", slotAvailabilityService.getAvailableSlots("mech-1", MONDAY.plusDays(1), 60).get(0));
+    }
+
+    @Test
+    void loadRacingWithAnInvalidationIsNotCached() {
+        // The booking is cancelled and its invalidation fires while the old occupancy is being read
+        SlotOccupancyProjection cancelled = occupied(MONDAY, "09:00", 60);
+        when(bookingRepository.findSlotOccupancy(eq("mech-1"), any(), any(), anyCollection()))
+                .thenAnswer(invocation -> {
+                    slotAvailabilityService.invalidate("mech-1", MONDAY);
+                    return List.of(cancelled);
+                })
+                .thenReturn(List.of());
+
+        assertEquals(List.of("08:00", "10:00"),
+                slotAvailabilityService.getAvailableSlots("mech-1", MONDAY, 60).subList(0, 2));
+        assertEquals(List.of("08:00", "09:00"),
+                slotAvailabilityService.getAvailableSlots("mech-1", MONDAY, 60).subList(0, 2));
+        verify(bookingRepository, times(2)).findSlotOccupancy(any(), any(), any(), anyCollection());
+    }
+
+    private SlotOccupancyProjection occupied(LocalDate date, String time, Integer duration) {
+        SlotOccupancyProjection booking = mock(SlotOccupancyProjection.class);
+        when(booking.getPreferredDate()).thenReturn(date);
+        when(booking.getPreferredTime()).thenReturn(LocalTime.parse(time));
+        when(booking.getEstimatedDuration()).thenReturn(duration);
+        return booking;
+    }
+}
@@ -0,0 +1,124 @@
+package com.eotieno.auto.jwt;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * HS256 token verification with the key decoded once and one shared, immutable parser.
+ * Verified claims are cached under the SHA-256 of the whole token until the token expires,
+ * so a repeat request with the same bearer token costs a hash and a lookup.
+ * Keying on the full token means a tampered payload never matches a cached entry.
+ * Expiry, for both the parser and the cache, is judged against the given clock.
+ * The services keep only their own mapping of jjwt exceptions; the checks themselves live here.
+ */
+public class JwtVerifier {
+
+    private final JwtParser parser;
+    private final Cache<String, Claims> verifiedTokens;
+    private final Clock clock;
+
+    public JwtVerifier(String base64Secret, long maxCachedTokens) {
+        this(base64Secret, maxCachedTokens, Clock.systemUTC());
+    }
+
+    public JwtVerifier(String base64Secret, long maxCachedTokens, Clock clock) {
+        this.clock = clock;
+        this.parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(base64Secret)))
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(maxCachedTokens)
+                .ticker(() -> TimeUnit.MILLISECONDS.toNanos(clock.millis()))
+                .expireAfter(new Expiry<String, Claims>() {
+                    @Override
+                    public long expireAfterCreate(String digest, Claims claims, long currentTime) {
+                        long remainingMillis = claims.getExpiration().getTime() - clock.millis();
+                        return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String digest, Claims claims, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Verified claims for the token. Throws what the jjwt parser throws: a JwtException subtype
+     * (ExpiredJwtException, MalformedJwtException, ...) or IllegalArgumentException for a blank token.
+     */
+    public Claims verify(String token) {
+        if (token == null || token.isBlank()) {
+            throw new IllegalArgumentException("JWT string cannot be empty or null");
+        }
+
+        String digest = digest(token);
+        Claims cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && !isExpired(cached)) {
+            return cached;
+        }
+
+        Claims claims = parser.parseSignedClaims(token).getPayload();
+        // Tokens without an expiry are verified every time rather than cached forever
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(digest, claims);
+        }
+        return claims;
+    }
+
+    /**
+     * Claims of a valid, unexpired token; empty instead of an exception when it is not
+     */
+    public Optional<Claims> validClaims(String token) {
+        try {
+            Claims claims = verify(token);
+            return isExpired(claims) ? Optional.empty() : Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    // Tokens without an expiry never expire
+    public boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && !claims.getExpiration().after(Date.from(clock.instant()));
+    }
+
+    /**
+     * The userId claim, issued by the user service as a string
+     */
+    public static Long userId(Claims claims) {
+        return Long.parseLong(claims.get("userId", String.class));
+    }
+
+    private static String digest(String token) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.eotieno.auto.jwt;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JwtVerifierTest {
+
+    private static final String SECRET = "dGVzdC1zZWNyZXQtdGhhdC1pcy1hdC1sZWFzdC0yNTYtYml0cy1sb25nLWZvci1oczI1Ng==";
+    private static final SecretKey KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+
+    private final MutableClock clock = new MutableClock(Instant.parse("2026-03-02T09:00:00Z"));
+    private final JwtVerifier verifier = new JwtVerifier(SECRET, 100, clock);
+
+    @Test
+    void cacheHitReturnsTheSameClaims() {
+        String token = token("alice", clock.instant().plus(Duration.ofMinutes(30)));
+
+        Claims first = verifier.verify(token);
+        Claims second = verifier.verify(token);
+
+        assertEquals("alice", first.getSubject());
+        assertSame(first, second);
+    }
+
+    @Test
+    void tamperedTokenMissesTheCacheAndFails() {
+        String token = token("alice", clock.instant().plus(Duration.ofMinutes(30)));
+        verifier.verify(token);
+
+        String[] parts = token.split("\\.");
+        String payload = new String(Base64.getUrlDecoder().decode(parts[1]), StandardCharsets.UTF_8);
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(payload.replace("alice", "admin").getBytes(StandardCharsets.UTF_8));
+        String tampered = parts[0] + "." + forged + "." + parts[2];
+
+        assertThrows(JwtException.class, () -> verifier.verify(tampered));
+        assertEquals("alice", verifier.verify(token).getSubject());
+    }
+
+    @Test
+    void expiredCachedEntryIsNotServed() {
+        String token = token("alice", clock.instant().plusSeconds(2));
+        verifier.verify(token);
+
+        clock.advance(Duration.ofMillis(1999));
+        assertEquals("alice", verifier.verify(token).getSubject());
+
+        clock.advance(Duration.ofSeconds(1));
+        assertThrows(ExpiredJwtException.class, () -> verifier.verify(token));
+    }
+
+    @Test
+    void validClaimsIsEmptyInsteadOfThrowing() {
+        String token = token("alice", clock.instant().plus(Duration.ofMinutes(30)));
+
+        assertEquals("alice", verifier.validClaims(token).map(Claims::getSubject).orElseThrow());
+        assertEquals(Optional.empty(), verifier.validClaims("not-a-token"));
+        assertEquals(Optional.empty(), verifier.validClaims(" "));
+
+        clock.advance(Duration.ofMinutes(30));
+        assertEquals(Optional.empty(), verifier.validClaims(token));
+    }
+
+    @Test
+    void userIdIsReadFromTheStringClaim() {
+        String token = Jwts.builder()
+                .subject("alice")
+                .claim("userId", "42")
+                .expiration(Date.from(clock.instant().plus(Duration.ofMinutes(30))))
+                .signWith(KEY)
+                .compact();
+
+        assertEquals(42L, JwtVerifier.userId(verifier.verify(token)));
+    }
+
+    @Test
+    void tokensWithoutExpiryNeverExpire() {
+        String token = Jwts.builder().subject("alice").signWith(KEY).compact();
+
+        clock.advance(Duration.ofDays(365));
+
+        assertTrue(verifier.validClaims(token).isPresent());
+    }
+
+    private String token(String subject, Instant expiresAt) {
+        return Jwts.builder()
+                .subject(subject)
+                .issuedAt(Date.from(clock.instant()))
+                .expiration(Date.from(expiresAt))
+                .signWith(KEY)
+                .compact();
+    }
+
+    // Moved by hand, so expiry is tested without sleeping
+    private static final class MutableClock extends Clock {
+
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,281 @@
+package com.eotieno.auto.user.config;
+
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.model.mechanic.ServiceCategory;
+import com.eotieno.auto.user.repository.MechanicProfileRepository;
+import com.eotieno.auto.user.service.ServiceProviderService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Explains every MechanicProfileRepository query and the nearby $geoNear aggregation at startup and
+ * reports any that the planner would answer with a collection scan or without the expected index.
+ * {@code @Query} filters are taken from the annotations themselves; derived queries have a probe below,
+ * and a repository method without a probe stops startup so new queries cannot skip the check.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MechanicProfileIndexVerifier {
+
+    private static final String MECHANIC_PROFILES = "mechanic_profiles";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\?(\\d+)");
+
+    // Geo indexes that moved to provider_search; nothing queries them here any more, they only cost writes
+    private static final List<String> RETIRED_INDEXES =
+            List.of("geo_category_complete", "geo_keywords_complete", "geo_emergency_mobile_complete");
+
+    private final MongoTemplate mongoTemplate;
+    private final ServiceProviderService serviceProviderService;
+
+    @Value("${profile.index-check.enabled:true}")
+    private boolean enabled;
+
+    @Value("${profile.index-check.fail-on-collscan:true}")
+    private boolean failOnCollectionScan;
+
+    private record Probe(Document filter, Document sort) {
+    }
+
+    // A nearby search shape and the provider_search index it must use (null: any index)
+    private record NearbyProbe(NearbySearchRequest request, String expectedIndex) {
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void verify() {
+        if (!enabled) {
+            return;
+        }
+        dropRetiredIndexes();
+
+        Map<String, Probe> probes = probes();
+        List<String> unprobed = Arrays.stream(MechanicProfileRepository.class.getDeclaredMethods())
+                .filter(method -> !method.isDefault() && !Modifier.isStatic(method.getModifiers()))
+                .map(Method::getName)
+                .filter(name -> !probes.containsKey(name))
+                .distinct()
+                .toList();
+        if (!unprobed.isEmpty()) {
+            throw new IllegalStateException("MechanicProfileRepository methods without an index probe: " + unprobed);
+        }
+
+        List<String> problems = new ArrayList<>();
+        probes.forEach((query, probe) -> {
+            try {
+                Document find = new Document("find", MECHANIC_PROFILES).append("filter", probe.filter());
+                if (probe.sort() != null) {
+                    find.append("sort", probe.sort());
+                }
+                Document explain = mongoTemplate.getDb().runCommand(
+                        new Document("explain", find).append("verbosity", "queryPlanner"));
+                checkPlan(query, explain, null, problems);
+            } catch (Exception e) {
+                problems.add(query + " could not be explained: " + e.getMessage());
+            }
+        });
+
+        Map<String, NearbyProbe> nearbyProbes = nearbyProbes();
+        nearbyProbes.forEach((search, probe) -> {
+            try {
+                checkPlan(search, serviceProviderService.explainNearbySearch(probe.request()),
+                        probe.expectedIndex(), problems);
+            } catch (Exception e) {
+                problems.add(search + " could not be explained: " + e.getMessage());
+            }
+        });
+
+        if (problems.isEmpty()) {
+            log.info("All {} mechanic profile queries and {} nearby search shapes are index-backed",
+                    probes.size(), nearbyProbes.size());
+            return;
+        }
+
+        problems.forEach(problem -> log.error("Mechanic profile index check: {}", problem));
+        if (failOnCollectionScan) {
+            throw new IllegalStateException("Mechanic profile queries without a usable index: " + problems);
+        }
+    }
+
+    private void checkPlan(String query, Document explain, String expectedIndex, List<String> problems) {
+        List<Document> winningPlans = new ArrayList<>();
+        collect(explain, "winningPlan", winningPlans);
+        if (winningPlans.isEmpty()) {
+            problems.add(query + " returned no query plan");
+        } else if (winningPlans.stream().anyMatch(plan -> containsStage(plan, "COLLSCAN"))) {
+            problems.add(query + " does a collection scan");
+        } else if (expectedIndex != null && winningPlans.stream().noneMatch(plan -> usesIndex(plan, expectedIndex))) {
+            problems.add(query + " does not use index " + expectedIndex);
+        }
+    }
+
+    private void dropRetiredIndexes() {
+        IndexOperations indexOps = mongoTemplate.indexOps(MECHANIC_PROFILES);
+        indexOps.getIndexInfo().stream()
+                .map(IndexInfo::getName)
+                .filter(RETIRED_INDEXES::contains)
+                .forEach(name -> {
+                    indexOps.dropIndex(name);
+                    log.info("Dropped retired mechanic profile index {}", name);
+                });
+    }
+
+    // Every @Query method from its annotation, plus filters shaped like the ones each derived query sends
+    private Map<String, Probe> probes() {
+        Map<String, Probe> probes = new LinkedHashMap<>();
+        for (Method method : MechanicProfileRepository.class.getDeclaredMethods()) {
+            Query query = method.getAnnotation(Query.class);
+            if (query != null && !query.value().isBlank()) {
+                probes.put(method.getName(), probe(withSampleArguments(query.value(), method.getParameterTypes())));
+            }
+        }
+
+        Document regex = new Document("$regex", "a").append("$options", "i");
+        probes.put("findByUserId", probe(new Document("userId", "u")));
+        probes.put("findByBusinessNameContainingIgnoreCase", probe(new Document("businessName", regex)));
+        probes.put("findByBusinessType", probe(new Document("businessType", "GARAGE")));
+        probes.put("findByIsVerifiedTrue", probe(new Document("isVerified", true)));
+        probes.put("findByIsProfileCompleteTrue", probe(new Document("isProfileComplete", true)));
+        probes.put("findByIsVerifiedTrueAndIsProfileCompleteTrue",
+                probe(new Document("isVerified", true).append("isProfileComplete", true)));
+        probes.put("findByEmergencyServiceTrue", probe(new Document("emergencyService", true)));
+        probes.put("findByMobileMechanicTrue", probe(new Document("mobileMechanic", true)));
+        probes.put("findByAverageRatingGreaterThanEqual",
+                probe(new Document("averageRating", new Document("$gte", 4.0))));
+        probes.put("findByYearsOfExperienceBetween",
+                probe(new Document("yearsOfExperience", new Document("$gt", 1).append("$lt", 10))));
+        // A Point with a Distance in kilometres is sent as $nearSphere with the distance in radians
+        probes.put("findByLocationCoordinatesNear", probe(new Document("location.coordinates",
+                new Document("$nearSphere", List.of(36.8219, -1.2921)).append("$maxDistance", 10 / 6378.137))));
+        probes.put("findTop10ByIsVerifiedTrueOrderByAverageRatingDesc",
+                new Probe(new Document("isVerified", true), new Document("averageRating", -1)));
+        return probes;
+    }
+
+    // The shapes ServiceProviderService sends to $geoNear on provider_search
+    private Map<String, NearbyProbe> nearbyProbes() {
+        Map<String, NearbyProbe> probes = new LinkedHashMap<>();
+        probes.put("nearby search", new NearbyProbe(nearby().build(), null));
+        probes.put("nearby search by service name",
+                new NearbyProbe(nearby().serviceName("brake pads").build(), "geo_keywords"));
+        probes.put("nearby search by category",
+                new NearbyProbe(nearby().category(ServiceCategory.values()[0]).build(), "geo_category"));
+        probes.put("nearby emergency search",
+                new NearbyProbe(nearby().emergencyService(true).build(), "geo_emergency_mobile"));
+        return probes;
+    }
+
+    private static NearbySearchRequest.NearbySearchRequestBuilder nearby() {
+        return NearbySearchRequest.builder().latitude(-1.2921).longitude(36.8219).radius(10.0);
+    }
+
+    private static Probe probe(Document filter) {
+        return new Probe(filter, null);
+    }
+
+    // Replace ?n placeholders with a sample value of the parameter's type
+    private static Document withSampleArguments(String json, Class<?>[] parameterTypes) {
+        Matcher matcher = PLACEHOLDER.matcher(json);
+        StringBuilder filled = new StringBuilder();
+        while (matcher.find()) {
+            Object sample = sampleValue(parameterTypes[Integer.parseInt(matcher.group(1))]);
+            String encoded = new Document("v", sample).toJson();
+            // {"v": <value>} -> <value>
+            String value = encoded.substring(encoded.indexOf(':') + 1, encoded.length() - 1).trim();
+            matcher.appendReplacement(filled, Matcher.quoteReplacement(value));
+        }
+        matcher.appendTail(filled);
+        return Document.parse(filled.toString());
+    }
+
+    private static Object sampleValue(Class<?> type) {
+        if (type == String.class) {
+            return "a";
+        }
+        if (type == Double.class || type == double.class) {
+            return 1.0;
+        }
+        if (type == Integer.class || type == int.class) {
+            return 1;
+        }
+        if (type == Long.class || type == long.class) {
+            return 1L;
+        }
+        if (type == Boolean.class || type == boolean.class) {
+            return true;
+        }
+        if (type.isEnum()) {
+            return ((Enum<?>) type.getEnumConstants()[0]).name();
+        }
+        if (type == LocalDateTime.class) {
+            return Date.from(LocalDateTime.now().toInstant(ZoneOffset.UTC));
+        }
+        if (type == Date.class) {
+            return new Date();
+        }
+        throw new IllegalArgumentException("No sample value for query parameter type " + type.getName());
+    }
+
+    // Every value stored under the key anywhere in the explain output (aggregations nest their plans per stage)
+    private static void collect(Object node, String key, List<Document> found) {
+        if (node instanceof Document document) {
+            document.forEach((name, value) -> {
+                if (key.equals(name) && value instanceof Document match) {
+                    found.add(match);
+                } else {
+                    collect(value, key, found);
+                }
+            });
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collect(value, key, found));
+        }
+    }
+
+    private static boolean usesIndex(Object node, String indexName) {
+        if (node instanceof Document document) {
+            if (indexName.equals(document.get("indexName"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> usesIndex(value, indexName));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> usesIndex(value, indexName));
+        }
+        return false;
+    }
+
+    // Walk the plan tree (inputStage, inputStages, queryPlan, ...) looking for the stage
+    private static boolean containsStage(Object node, String stage) {
+        if (node instanceof Document document) {
+            if (stage.equals(document.getString("stage"))) {
+                return true;
+            }
+            return document.values().stream().anyMatch(value -> containsStage(value, stage));
+        }
+        if (node instanceof List<?> list) {
+            return list.stream().anyMatch(value -> containsStage(value, stage));
+        }
+        return false;
+    }
+}
@@ -34,6 +34,7 @@ public class SecurityConfig {
                             corsConfiguration.setAllowedOrigins(java.util.List.of("http://localhost:4200"));
                             corsConfiguration.setAllowedMethods(java.util.List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
                             corsConfiguration.setAllowedHeaders(java.util.List.of("*"));
+                            corsConfiguration.setExposedHeaders(java.util.List.of("X-Total-Count"));
                             corsConfiguration.setAllowCredentials(true);
                             return corsConfiguration;
                         })
@@ -2,8 +2,10 @@ package com.eotieno.auto.user.controller;
 
 import com.eotieno.auto.user.dto.AuthRequest;
 import com.eotieno.auto.user.dto.AuthResponse;
+import com.eotieno.auto.user.dto.RefreshTokenRequest;
 import com.eotieno.auto.user.dto.RegisterRequest;
 import com.eotieno.auto.user.service.AuthenticationService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -23,4 +25,15 @@ public class AuthController {
     public ResponseEntity<AuthResponse> login(@RequestBody AuthRequest request) {
         return ResponseEntity.ok(authService.authenticate(request));
     }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        return ResponseEntity.ok(authService.refresh(request.getRefreshToken()));
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@Valid @RequestBody RefreshTokenRequest request) {
+        authService.logout(request.getRefreshToken());
+        return ResponseEntity.noContent().build();
+    }
 }
\ No newline at end of file
@@ -1,24 +1,34 @@
 package com.eotieno.auto.user.controller;
 
+import com.eotieno.auto.user.dto.serviceProvider.DistanceMatrixDTO;
+import com.eotieno.auto.user.dto.serviceProvider.DistanceMatrixRequest;
 import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchResult;
 import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDTO;
 import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDetailsDTO;
 import com.eotieno.auto.user.model.mechanic.ServiceCategory;
 import com.eotieno.auto.user.service.ServiceProviderService;
+import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
 @RequestMapping("/api/service-providers")
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = ServiceProviderController.TOTAL_COUNT_HEADER)
 @Slf4j
 public class ServiceProviderController {
 
+    static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+    private static final int MAX_BATCH_SIZE = 200;
+    private static final int MAX_MATRIX_CELLS = 10_000;
+
     @Autowired
     private ServiceProviderService serviceProviderService;
 
@@ -37,6 +47,8 @@ public class ServiceProviderController {
             @RequestParam(required = false) Integer minRating,
             @RequestParam(required = false) Boolean isVerified,
             @RequestParam(required = false) String businessType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime openAt,
+            @RequestParam(required = false) Boolean openNow,
             @RequestParam(defaultValue = "0") Integer page,
             @RequestParam(defaultValue = "20") Integer size,
             @RequestParam(defaultValue = "distance") String sortBy,
@@ -57,16 +69,21 @@ public class ServiceProviderController {
                     .minRating(minRating)
                     .isVerified(isVerified)
                     .businessType(businessType)
+                    .openAt(openAt)
+                    .openNow(openNow)
                     .page(page)
                     .size(size)
                     .sortBy(sortBy)
                     .sortDirection(sortDirection)
                     .build();
 
-            List<ServiceProviderDTO> providers = serviceProviderService.getNearbyServiceProviders(request);
+            NearbySearchResult result = serviceProviderService.searchNearbyServiceProviders(request);
 
-            log.info("Found {} nearby service providers", providers.size());
-            return ResponseEntity.ok(providers);
+            log.info("Found {} nearby service providers ({} on this page)",
+                    result.getTotal(), result.getProviders().size());
+            return ResponseEntity.ok()
+                    .header(TOTAL_COUNT_HEADER, String.valueOf(result.getTotal()))
+                    .body(result.getProviders());
 
         } catch (Exception e) {
             log.error("Error finding nearby service providers: {}", e.getMessage(), e);
@@ -74,6 +91,41 @@ public class ServiceProviderController {
         }
     }
 
+    /**
+     * GET THE K NEAREST SERVICE PROVIDERS
+     */
+    @GetMapping("/nearby/nearest")
+    public ResponseEntity<List<ServiceProviderDTO>> getNearestServiceProviders(
+            @RequestParam Double lat,
+            @RequestParam Double lng,
+            @RequestParam(defaultValue = "10") Integer k,
+            @RequestParam(defaultValue = "50") Double radius,
+            @RequestParam(required = false) ServiceCategory category,
+            @RequestParam(required = false) String serviceName,
+            @RequestParam(required = false) Boolean emergencyService,
+            @RequestParam(required = false) Boolean mobileMechanic,
+            @RequestParam(required = false) Boolean openNow) {
+
+        try {
+            NearbySearchRequest request = NearbySearchRequest.builder()
+                    .latitude(lat)
+                    .longitude(lng)
+                    .radius(radius)
+                    .category(category)
+                    .serviceName(serviceName)
+                    .emergencyService(emergencyService)
+                    .mobileMechanic(mobileMechanic)
+                    .openNow(openNow)
+                    .build();
+
+            return ResponseEntity.ok(serviceProviderService.getNearestServiceProviders(request, k));
+
+        } catch (Exception e) {
+            log.error("Error finding nearest service providers: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * GET SERVICE PROVIDER DETAILS BY ID
      */
@@ -96,6 +148,25 @@ public class ServiceProviderController {
         }
     }
 
+    /**
+     * GET SERVICE PROVIDER DETAILS FOR MANY IDS
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<ServiceProviderDetailsDTO>> getServiceProviderDetailsBatch(
+            @RequestBody List<String> ids) {
+        try {
+            if (ids == null || ids.size() > MAX_BATCH_SIZE) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            return ResponseEntity.ok(serviceProviderService.getServiceProviderDetails(ids));
+
+        } catch (Exception e) {
+            log.error("Error retrieving service provider details for {} IDs", ids.size(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
+
     /**
      * GET NEARBY SERVICE PROVIDERS BY CATEGORY
      */
@@ -232,4 +303,25 @@ public class ServiceProviderController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * CALCULATE A DISTANCE MATRIX - every origin to every destination in one call
+     */
+    @PostMapping("/distance/matrix")
+    public ResponseEntity<DistanceMatrixDTO> calculateDistanceMatrix(
+            @Valid @RequestBody DistanceMatrixRequest request) {
+
+        try {
+            if ((long) request.getOrigins().size() * request.getDestinations().size() > MAX_MATRIX_CELLS) {
+                return ResponseEntity.badRequest().build();
+            }
+
+            return ResponseEntity.ok(serviceProviderService.calculateDistanceMatrix(
+                    request.getOrigins(), request.getDestinations()));
+
+        } catch (Exception e) {
+            log.error("Error calculating distance matrix: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+        }
+    }
 }
\ No newline at end of file
@@ -16,6 +16,8 @@ public class AuthResponse {
     private Long id;
     private String token;  // JWT token
     private Instant expiry;
+    private String refreshToken;  // opaque, single use; exchange at /api/auth/refresh
+    private Instant refreshExpiry;
     private String username;
     private String email;
     private Set<String> roles = new HashSet<>();
@@ -0,0 +1,16 @@
+package com.eotieno.auto.user.dto.serviceProvider;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixDTO {
+    private int origins;
+    private int destinations;
+    private double[][] distancesKm; // [origin][destination]
+}
@@ -0,0 +1,32 @@
+package com.eotieno.auto.user.dto.serviceProvider;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DistanceMatrixRequest {
+    @NotEmpty(message = "At least one origin is required")
+    private List<@Valid @NotNull Point> origins;
+    @NotEmpty(message = "At least one destination is required")
+    private List<@Valid @NotNull Point> destinations;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Point {
+        @NotNull(message = "Latitude is required")
+        private Double latitude;
+        @NotNull(message = "Longitude is required")
+        private Double longitude;
+    }
+}
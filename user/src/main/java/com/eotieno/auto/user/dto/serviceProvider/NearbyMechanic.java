@@ -0,0 +1,23 @@
+package com.eotieno.auto.user.dto.serviceProvider;
+
+import com.eotieno.auto.user.model.Location;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Lean row produced by the nearby-search aggregation: only the fields a ServiceProviderDTO needs
+@Data
+@NoArgsConstructor
+public class NearbyMechanic {
+    private String id;
+    private String businessName;
+    private Location location;
+    private List<String> serviceNames;
+    private Double averageRating;
+    private String contactPhone;
+    private String contactEmail;
+    private String workingHours; // preformatted in the provider_search projection
+    private String description;
+    private Double distance; // meters from the search point, set by $geoNear
+}
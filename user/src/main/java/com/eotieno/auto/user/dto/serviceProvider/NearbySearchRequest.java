@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -21,6 +23,8 @@ public class NearbySearchRequest {
     private Integer minRating;
     private Boolean isVerified;
     private String businessType;
+    private LocalDateTime openAt; // provider local time
+    private Boolean openNow;
     private Integer page = 0;
     private Integer size = 20;
     private String sortBy = "distance";
@@ -0,0 +1,17 @@
+package com.eotieno.auto.user.dto.serviceProvider;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearbySearchResult {
+    private List<ServiceProviderDTO> providers;
+    private long total; // matches across all pages
+}
@@ -9,7 +9,7 @@ import lombok.NoArgsConstructor;
 import java.util.List;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ServiceProviderDTO {
@@ -22,6 +22,7 @@ public class ServiceProviderDTO {
     private String email;
     private String workingHours;
     private String description;
+    private Double distanceKm; // from the search point, only set on nearby searches
 }
 
 
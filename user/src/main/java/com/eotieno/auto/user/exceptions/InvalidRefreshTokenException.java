@@ -0,0 +1,10 @@
+package com.eotieno.auto.user.exceptions;
+
+import org.springframework.http.HttpStatus;
+
+// Unknown, expired or already used refresh token
+public class InvalidRefreshTokenException extends BusinessException {
+    public InvalidRefreshTokenException(String message) {
+        super(message, HttpStatus.UNAUTHORIZED);
+    }
+}
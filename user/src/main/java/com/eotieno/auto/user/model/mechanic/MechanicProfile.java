@@ -9,6 +9,8 @@ import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexType;
 import org.springframework.data.mongodb.core.index.GeoSpatialIndexed;
@@ -21,6 +23,19 @@ import java.util.List;
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "mechanic_profiles")
+// Index set for the MechanicProfileRepository queries; MechanicProfileIndexVerifier explains each one at startup
+@CompoundIndexes({
+        @CompoundIndex(name = "complete_only", def = "{'isProfileComplete': 1}",
+                partialFilter = "{'isProfileComplete': true}"),
+        @CompoundIndex(name = "emergency_only", def = "{'emergencyService': 1}",
+                partialFilter = "{'emergencyService': true}"),
+        @CompoundIndex(name = "mobile_only", def = "{'mobileMechanic': 1}",
+                partialFilter = "{'mobileMechanic': true}"),
+        @CompoundIndex(name = "verified_rating", def = "{'isVerified': 1, 'averageRating': -1}"),
+        @CompoundIndex(name = "city_verified", def = "{'location.city': 1, 'isVerified': 1}"),
+        @CompoundIndex(name = "state", def = "{'location.state': 1}"),
+        @CompoundIndex(name = "service_category", def = "{'servicesOffered.category': 1}")
+})
 public class MechanicProfile {
     @Id
     private String id;
@@ -31,18 +46,22 @@ public class MechanicProfile {
 
     @NotBlank(message = "Business name is required")
     @Size(min = 2, message = "Business name must be at least 2 characters")
+    @Indexed
     private String businessName;
 
     @NotNull(message = "Business type is required")
+    @Indexed
     private BusinessType businessType;
 
     @NotBlank(message = "Description is required")
     @Size(min = 20, message = "Description must be at least 20 characters")
     private String description;
 
+    @Indexed
     private List<String> specializations;
 
     @Min(value = 0, message = "Years of experience cannot be negative")
+    @Indexed
     private Integer yearsOfExperience;
 
     private Location location;
@@ -58,7 +77,13 @@ public class MechanicProfile {
     private String website;
 
     private List<ServiceOffered> servicesOffered;
+
+    // Normalized tokens of the service names, see ServiceKeywords
+    private List<String> serviceKeywords;
     private List<WorkingHours> workingHours;
+
+    // Open/closed per 15-minute slot of the week, see WeeklyAvailability
+    private byte[] weeklyOpenSlots;
     private List<Certification> certifications;
 
     private String licenseNumber;
@@ -72,6 +97,7 @@ public class MechanicProfile {
 
     @DecimalMin(value = "0.0", message = "Rating cannot be negative")
     @DecimalMax(value = "5.0", message = "Rating cannot exceed 5.0")
+    @Indexed
     private Double averageRating;
 
     @Min(value = 0, message = "Total reviews cannot be negative")
@@ -87,6 +113,7 @@ public class MechanicProfile {
     private LocalDateTime createdAt;
 
     @LastModifiedDate
+    @Indexed
     private LocalDateTime updatedAt;
 
 
@@ -0,0 +1,62 @@
+package com.eotieno.auto.user.model.mechanic;
+
+import com.eotieno.auto.user.model.Location;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Slim read model for nearby searches, one per complete mechanic profile (same id).
+ * Holds only what ServiceProviderDTO and the search filters need, with working hours preformatted.
+ * Maintained by ProviderSearchProjectionService whenever a profile is written.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "provider_search")
+// Geo indexes with the $geoNear filter fields as suffix keys, so filtered searches are bounded by the index
+@CompoundIndexes({
+        @CompoundIndex(name = "geo_keywords",
+                def = "{'location.coordinates': '2dsphere', 'serviceKeywords': 1}"),
+        @CompoundIndex(name = "geo_category",
+                def = "{'location.coordinates': '2dsphere', 'serviceCategories': 1}"),
+        @CompoundIndex(name = "geo_emergency_mobile",
+                def = "{'location.coordinates': '2dsphere', 'emergencyService': 1, 'mobileMechanic': 1}")
+})
+public class ProviderSearchDocument {
+    @Id
+    private String id;
+
+    private String businessName;
+    private BusinessType businessType;
+
+    // Only coordinates and address are filled in
+    private Location location;
+
+    private List<String> serviceNames;
+
+    private List<String> serviceKeywords;
+    private List<ServiceCategory> serviceCategories;
+
+    private Boolean emergencyService;
+    private Boolean mobileMechanic;
+    private Boolean isVerified;
+    private Double averageRating;
+
+    private String contactPhone;
+    private String contactEmail;
+    private String workingHours;
+    private byte[] weeklyOpenSlots;
+    private String description;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,60 @@
+package com.eotieno.auto.user.model.mechanic;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Normalized tokens for service names, stored on profiles so "brake pads" can be matched with
+ * an indexed $all instead of a case-insensitive regex. Search terms go through the same tokenizer.
+ */
+public final class ServiceKeywords {
+
+    private ServiceKeywords() {
+    }
+
+    /**
+     * Keywords for every service a mechanic offers, deduplicated
+     */
+    public static List<String> of(List<ServiceOffered> services) {
+        Set<String> keywords = new LinkedHashSet<>();
+        if (services != null) {
+            for (ServiceOffered service : services) {
+                keywords.addAll(tokenize(service.getName()));
+            }
+        }
+        return new ArrayList<>(keywords);
+    }
+
+    /**
+     * Lowercase, strip accents and punctuation, split on anything that is not a letter or digit
+     * and drop a plural "s" so "pad" and "pads" meet
+     */
+    public static List<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null) {
+            return new ArrayList<>(tokens);
+        }
+
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        for (String token : normalized.split("[^a-z0-9]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(stem(token));
+            }
+        }
+        return new ArrayList<>(tokens);
+    }
+
+    private static String stem(String token) {
+        if (token.length() > 3 && token.endsWith("s") && !token.endsWith("ss")) {
+            return token.substring(0, token.length() - 1);
+        }
+        return token;
+    }
+}
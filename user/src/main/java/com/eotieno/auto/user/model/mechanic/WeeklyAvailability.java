@@ -0,0 +1,93 @@
+package com.eotieno.auto.user.model.mechanic;
+
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Weekly opening hours as a bitmap of 672 fifteen-minute slots (Monday 00:00 is slot 0), stored as 84 bytes.
+ * Slot bits follow Mongo's BinData bit numbering (bit i is bit i % 8 of byte i / 8), so the same array can be
+ * tested in memory or with $bitsAllSet. A slot is set when the mechanic is open for any part of it: opening times
+ * round down and closing times round up to the slot grid, so hours off the grid may read as open up to 14 minutes
+ * early or late (08:10-17:50 is open from 08:00 to 18:00), but never as closed while the mechanic is open.
+ */
+public final class WeeklyAvailability {
+
+    public static final int SLOT_MINUTES = 15;
+    public static final int SLOTS_PER_DAY = 24 * 60 / SLOT_MINUTES;
+    public static final int SLOTS_PER_WEEK = 7 * SLOTS_PER_DAY;
+
+    private WeeklyAvailability() {
+    }
+
+    /**
+     * Bitmap for the open days; unparseable entries are skipped and hours past midnight spill into the next day
+     */
+    public static byte[] of(List<WorkingHours> workingHours) {
+        byte[] slots = new byte[SLOTS_PER_WEEK / 8];
+        if (workingHours == null) {
+            return slots;
+        }
+
+        for (WorkingHours hours : workingHours) {
+            if (!Boolean.TRUE.equals(hours.getIsOpen())) {
+                continue;
+            }
+            DayOfWeek day = parseDay(hours.getDay());
+            int open = parseMinutes(hours.getOpenTime() != null ? hours.getOpenTime() : "00:00");
+            int close = parseMinutes(hours.getCloseTime() != null ? hours.getCloseTime() : "23:59");
+            if (day == null || open < 0 || close < 0) {
+                continue;
+            }
+            if (close <= open) {
+                close += 24 * 60; // closes after midnight
+            }
+
+            int dayStart = (day.getValue() - 1) * SLOTS_PER_DAY;
+            for (int slot = open / SLOT_MINUTES; slot * SLOT_MINUTES < close; slot++) {
+                int index = (dayStart + slot) % SLOTS_PER_WEEK;
+                slots[index >> 3] |= (byte) (1 << (index & 7));
+            }
+        }
+        return slots;
+    }
+
+    /**
+     * Slot containing the given local time
+     */
+    public static int slotOf(LocalDateTime time) {
+        return (time.getDayOfWeek().getValue() - 1) * SLOTS_PER_DAY
+                + (time.getHour() * 60 + time.getMinute()) / SLOT_MINUTES;
+    }
+
+    public static boolean isOpen(byte[] slots, int slot) {
+        return slots != null && slots.length > slot >> 3 && (slots[slot >> 3] & (1 << (slot & 7))) != 0;
+    }
+
+    // Accepts "Monday", "MON", "mon" ...
+    private static DayOfWeek parseDay(String day) {
+        if (day == null || day.trim().length() < 3) {
+            return null;
+        }
+        String prefix = day.trim().substring(0, 3).toUpperCase(Locale.ROOT);
+        for (DayOfWeek candidate : DayOfWeek.values()) {
+            if (candidate.name().startsWith(prefix)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    // "HH:mm" to minutes of the day, -1 when malformed
+    private static int parseMinutes(String time) {
+        String[] parts = time.trim().split(":");
+        try {
+            int hours = Integer.parseInt(parts[0]);
+            int minutes = parts.length > 1 ? Integer.parseInt(parts[1]) : 0;
+            return hours >= 0 && hours <= 24 && minutes >= 0 && minutes < 60 ? hours * 60 + minutes : -1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
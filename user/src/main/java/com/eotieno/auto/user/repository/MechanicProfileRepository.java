@@ -53,7 +53,7 @@ public interface MechanicProfileRepository extends MongoRepository<MechanicProfi
     List<MechanicProfile> findByYearsOfExperienceBetween(Integer minYears, Integer maxYears);
 
     // Geospatial queries - find mechanics near a location
-    @Query("{'location': {$near: {$geometry: {type: 'Point', coordinates: [?1, ?0]}, $maxDistance: ?2}}}")
+    @Query("{'location.coordinates': {$near: {$geometry: {type: 'Point', coordinates: [?1, ?0]}, $maxDistance: ?2}}}")
     List<MechanicProfile> findByLocationNear(Double latitude, Double longitude, Double maxDistanceInMeters);
 
     // Find mechanics within a certain radius using Spring Data GeoSpatial
@@ -71,35 +71,6 @@ public interface MechanicProfileRepository extends MongoRepository<MechanicProfi
     List<MechanicProfile> findTop10ByIsVerifiedTrueOrderByAverageRatingDesc();
 
 
-    // Custom queries for nearby search with additional filters
-    @Query("{ 'location.coordinates': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } }, " +
-            "'isProfileComplete': true }")
-    List<MechanicProfile> findNearbyMechanics(Double latitude, Double longitude, Double radiusMeters);
-
-    @Query("{ 'location.coordinates': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } }, " +
-            "'isProfileComplete': true, " +
-            "'location.coordinates': { $exists: true }, " +
-            "'servicesOffered.category': ?3 }")
-    List<MechanicProfile> findNearbyMechanicsByCategory(Double latitude, Double longitude, Double radiusMeters, ServiceCategory category);
-
-    @Query("{ 'location.coordinates': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } }, " +
-            "'isProfileComplete': true, " +
-            "'location.coordinates': { $exists: true }, " +
-            "'servicesOffered.name': { $regex: ?3, $options: 'i' } }")
-    List<MechanicProfile> findNearbyMechanicsByServiceName(Double latitude, Double longitude, Double radiusMeters, String serviceName);
-
-    @Query("{ 'location.coordinates': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } }, " +
-            "'isProfileComplete': true, " +
-            "'location.coordinates': { $exists: true }, " +
-            "'emergencyService': ?3 }")
-    List<MechanicProfile> findNearbyEmergencyMechanics(Double latitude, Double longitude, Double radiusMeters, Boolean emergencyService);
-
-    @Query("{ 'location.coordinates': { $near: { $geometry: { type: 'Point', coordinates: [?1, ?0] }, $maxDistance: ?2 } }, " +
-            "'isProfileComplete': true, " +
-            "'location.coordinates': { $exists: true }, " +
-            "'mobileMechanic': ?3 }")
-    List<MechanicProfile> findNearbyMobileMechanics(Double latitude, Double longitude, Double radiusMeters, Boolean mobileMechanic);
-
     // Additional existing methods...
     @Query("{ 'location.city': { $regex: ?0, $options: 'i' } }")
     List<MechanicProfile> findByCity(String city);
@@ -0,0 +1,22 @@
+package com.eotieno.auto.user.repository;
+
+import com.eotieno.auto.user.model.mechanic.ProviderSearchDocument;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+@Repository
+public interface ProviderSearchRepository extends MongoRepository<ProviderSearchDocument, String> {
+
+    // Documents projected before a field was added
+    boolean existsByServiceKeywordsIsNull();
+
+    boolean existsByWeeklyOpenSlotsIsNull();
+
+    // Documents whose profile is gone or no longer searchable; anything synced after the cut-off is kept
+    @Query(value = "{ '_id': { $nin: ?0 }, $or: [ { 'updatedAt': { $lt: ?1 } }, { 'updatedAt': null } ] }", delete = true)
+    long deleteOrphans(Collection<String> keepIds, LocalDateTime syncedBefore);
+}
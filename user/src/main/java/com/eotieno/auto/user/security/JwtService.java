@@ -4,19 +4,44 @@ import com.eotieno.auto.user.model.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class JwtService {
+    public static final Duration ACCESS_TOKEN_TTL = Duration.ofMinutes(30);
+    public static final String USER_ID_CLAIM = "userId";
+    public static final String ROLES_CLAIM = "roles";
+    // iat only has second precision; revocation compares against this instead
+    public static final String ISSUED_AT_MS_CLAIM = "iat_ms";
+
     @Value("${jwt.secret}")
     private String SECRET_KEY;
 
+    // Decoded once at startup; the parser is immutable and thread-safe, so one instance serves every request
+    private SecretKey signInKey;
+    private JwtParser jwtParser;
+
+    @PostConstruct
+    void init() {
+        signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET_KEY));
+        jwtParser = Jwts.parser()
+                .verifyWith(signInKey)
+                .build();
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -26,52 +51,93 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    // A signed token together with the expiry it was signed with
+    public record IssuedToken(String token, Instant expiresAt) {
+    }
+
     public String generateToken(User userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
 
     public String generateToken(Map<String, Object> extraClaims, User userDetails) {
-        return Jwts.builder()
+        return issueToken(extraClaims, userDetails).token();
+    }
+
+    /**
+     * Sign a token and return its expiry as well, so callers never re-parse the token to read it
+     */
+    public IssuedToken issueToken(User userDetails) {
+        return issueToken(new HashMap<>(), userDetails);
+    }
+
+    public IssuedToken issueToken(Map<String, Object> extraClaims, User userDetails) {
+        Instant issuedAt = Instant.now();
+        Instant expiresAt = issuedAt.plus(ACCESS_TOKEN_TTL); // 30min expiry
+        String token = Jwts.builder()
                 .claims(extraClaims)
-                .claim("userId", userDetails.getId())        // Custom claim for user ID
+                .claim(USER_ID_CLAIM, userDetails.getId())        // Custom claim for user ID
+                .claim(ROLES_CLAIM, userDetails.getAuthorities().stream()  // Lets the filter skip the user lookup
+                        .map(GrantedAuthority::getAuthority)
+                        .collect(Collectors.toList()))
+                .claim(ISSUED_AT_MS_CLAIM, issuedAt.toEpochMilli())
                 .subject(userDetails.getUsername() != null ? userDetails.getUsername() : userDetails.getPhoneNumber())
-                .issuedAt(new Date())
-                .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 30)) // 30min expiry
+                .issuedAt(Date.from(issuedAt))
+                .expiration(Date.from(expiresAt))
                 .signWith(getSignInKey(), Jwts.SIG.HS256)
                 .compact();
+        // JWT dates have second precision
+        return new IssuedToken(token, expiresAt.truncatedTo(ChronoUnit.SECONDS));
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return isTokenValid(extractAllClaims(token), userDetails);
+    }
+
+    /**
+     * Check already-verified claims against the user, without parsing the token again
+     */
+    public boolean isTokenValid(Claims claims, UserDetails userDetails) {
+        final String username = claims.getSubject();
+        return username != null && username.equals(userDetails.getUsername()) && !isExpired(claims);
+    }
+
+    /**
+     * Authorities carried in the token, or null for tokens issued before the roles claim existed
+     */
+    public List<GrantedAuthority> extractAuthorities(Claims claims) {
+        Object roles = claims.get(ROLES_CLAIM);
+        if (!(roles instanceof Collection<?> roleNames)) {
+            return null;
+        }
+        return roleNames.stream()
+                .map(role -> (GrantedAuthority) new SimpleGrantedAuthority(String.valueOf(role)))
+                .collect(Collectors.toList());
     }
 
     public boolean isTokenValid(String token) {
         try {
-        return !isTokenExpired(token);
+            return !isExpired(extractAllClaims(token));
         } catch (Exception e) {
             return false;
         }
     }
 
     public boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        return isExpired(extractAllClaims(token));
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
+    /**
+     * Parse the token, verifying signature and expiry; throws JwtException when it is unusable
+     */
     public Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        return jwtParser.parseSignedClaims(token).getPayload();
     }
 
     private SecretKey getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signInKey;
     }
 }
\ No newline at end of file
@@ -0,0 +1,65 @@
+package com.eotieno.auto.user.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory cut-offs for access tokens, keyed by subject. Any token for that subject issued strictly before
+ * the cut-off is rejected, so a token issued right after the cut-off (a re-login) stays valid. Only logout sets
+ * a cut-off today; there is no role-change path yet, and one would have to call this itself.
+ * Cut-offs live on this user-service node only: other nodes, and the booking and vehicle services (which verify
+ * tokens on their own), keep accepting a revoked token until it expires, at most ACCESS_TOKEN_TTL later.
+ * Entries only need to outlive the longest access token, after which they are purged.
+ */
+@Component
+@Slf4j
+public class TokenRevocationService {
+
+    private final Map<String, Instant> revokedBefore = new ConcurrentHashMap<>();
+
+    /**
+     * Reject every token for the subject issued before the cut-off
+     */
+    public void revokeTokensIssuedBefore(String subject, Instant cutoff) {
+        Instant millis = cutoff.truncatedTo(ChronoUnit.MILLIS);
+        revokedBefore.merge(subject, millis, (current, next) -> next.isAfter(current) ? next : current);
+        log.info("Revoked tokens for {} issued before {}", subject, millis);
+    }
+
+    public void revokeAll(String subject) {
+        revokeTokensIssuedBefore(subject, Instant.now());
+    }
+
+    public boolean isRevoked(Claims claims) {
+        if (revokedBefore.isEmpty() || claims.getSubject() == null) {
+            return false;
+        }
+        Instant cutoff = revokedBefore.get(claims.getSubject());
+        if (cutoff == null) {
+            return false;
+        }
+
+        Object issuedAtMillis = claims.get(JwtService.ISSUED_AT_MS_CLAIM);
+        if (issuedAtMillis instanceof Number millis) {
+            return millis.longValue() < cutoff.toEpochMilli();
+        }
+        // Tokens without the millisecond claim only carry iat in seconds; one from the cut-off's second
+        // cannot be told apart from an older one, so it is rejected
+        return claims.getIssuedAt() == null
+                || claims.getIssuedAt().toInstant().isBefore(cutoff.truncatedTo(ChronoUnit.SECONDS).plusSeconds(1));
+    }
+
+    @Scheduled(fixedDelay = 5 * 60 * 1000)
+    public void purgeExpired() {
+        Instant oldest = Instant.now().minus(JwtService.ACCESS_TOKEN_TTL).minus(Duration.ofMinutes(1));
+        revokedBefore.values().removeIf(cutoff -> cutoff.isBefore(oldest));
+    }
+}
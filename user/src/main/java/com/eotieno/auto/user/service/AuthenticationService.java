@@ -3,16 +3,18 @@ package com.eotieno.auto.user.service;
 import com.eotieno.auto.user.dto.AuthRequest;
 import com.eotieno.auto.user.dto.AuthResponse;
 import com.eotieno.auto.user.dto.RegisterRequest;
+import com.eotieno.auto.user.exceptions.InvalidRefreshTokenException;
 import com.eotieno.auto.user.model.Role;
 import com.eotieno.auto.user.model.RoleType;
 import com.eotieno.auto.user.model.User;
 import com.eotieno.auto.user.repository.RoleRepository;
 import com.eotieno.auto.user.repository.UserRepository;
 import com.eotieno.auto.user.security.JwtService;
-import io.jsonwebtoken.Claims;
+import com.eotieno.auto.user.security.TokenRevocationService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -28,6 +30,8 @@ public class AuthenticationService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     public AuthResponse register(RegisterRequest request) {
         // Fetch roles from DB
@@ -50,24 +54,56 @@ public class AuthenticationService {
                 .address(request.getAddress())
                 .build();
         userRepository.save(user);
-        var jwtToken = jwtService.generateToken(user);
-        return AuthResponse.builder().token(jwtToken).build();
+        JwtService.IssuedToken accessToken = jwtService.issueToken(user);
+        RefreshTokenService.IssuedRefreshToken refreshToken = refreshTokenService.issue(user.getId());
+        return AuthResponse.builder()
+                .token(accessToken.token())
+                .expiry(accessToken.expiresAt())
+                .refreshToken(refreshToken.token())
+                .refreshExpiry(refreshToken.expiresAt())
+                .build();
     }
 
     public AuthResponse authenticate(AuthRequest request) {
         // Authenticate via email OR phone
-        authenticationManager.authenticate(
+        Authentication authentication = authenticationManager.authenticate(
                 new UsernamePasswordAuthenticationToken(
                         request.getIdentifier(),
                         request.getPassword()
                 )
         );
-        // Find user by email or phone
-        var user = userRepository.findByEmail(request.getIdentifier())
-                .or(() -> userRepository.findByPhoneNumber(request.getIdentifier()))
-                .orElseThrow();
-        var jwtToken = jwtService.generateToken(user);
-        Claims claims = jwtService.extractAllClaims(jwtToken);
+        // UserService already loaded the user to check the password; reuse it instead of querying again
+        User user = authentication.getPrincipal() instanceof User principal
+                ? principal
+                : userRepository.findByEmail(request.getIdentifier())
+                        .or(() -> userRepository.findByPhoneNumber(request.getIdentifier()))
+                        .orElseThrow();
+        return toAuthResponse(user, refreshTokenService.issue(user.getId()));
+    }
+
+    /**
+     * Swap a refresh token for a new access token and a rotated refresh token, without a password check
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        User user = userRepository.findById(rotation.userId())
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+        return toAuthResponse(user, rotation.next());
+    }
+
+    /**
+     * Revoke the refresh token and cut off access tokens the user already holds
+     */
+    public void logout(String refreshToken) {
+        Long userId = refreshTokenService.revoke(refreshToken);
+        if (userId != null) {
+            userRepository.findById(userId).ifPresent(user -> tokenRevocationService.revokeAll(
+                    user.getUsername() != null ? user.getUsername() : user.getPhoneNumber()));
+        }
+    }
+
+    private AuthResponse toAuthResponse(User user, RefreshTokenService.IssuedRefreshToken refreshToken) {
+        JwtService.IssuedToken accessToken = jwtService.issueToken(user);
         // Extract role names
         Set<String> roleNames = user.getRoles().stream()
                 .map(Role::getName)
@@ -75,8 +111,10 @@ public class AuthenticationService {
 
         return AuthResponse.builder()
                 .id(user.getId())
-                .token(jwtToken)
-                .expiry(claims.getExpiration().toInstant())
+                .token(accessToken.token())
+                .expiry(accessToken.expiresAt())
+                .refreshToken(refreshToken.token())
+                .refreshExpiry(refreshToken.expiresAt())
                 .username(user.getUsername())
                 .email(user.getEmail())
                 .roles(roleNames)
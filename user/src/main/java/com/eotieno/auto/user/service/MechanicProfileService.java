@@ -4,6 +4,8 @@ package com.eotieno.auto.user.service;
 import com.eotieno.auto.user.model.mechanic.BusinessType;
 import com.eotieno.auto.user.model.mechanic.MechanicProfile;
 import com.eotieno.auto.user.model.mechanic.ServiceCategory;
+import com.eotieno.auto.user.model.mechanic.ServiceKeywords;
+import com.eotieno.auto.user.model.mechanic.WeeklyAvailability;
 import com.eotieno.auto.user.repository.MechanicProfileRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -23,10 +25,20 @@ public class MechanicProfileService {
     @Autowired
     private MechanicProfileRepository mechanicProfileRepository;
 
+    @Autowired
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Autowired
+    private ProviderSearchProjectionService providerSearchProjectionService;
+
     // Basic CRUD operations
     public MechanicProfile save(MechanicProfile profile) {
         profile.setUpdatedAt(LocalDateTime.now());
-        return mechanicProfileRepository.save(profile);
+        profile.setServiceKeywords(ServiceKeywords.of(profile.getServicesOffered()));
+        profile.setWeeklyOpenSlots(WeeklyAvailability.of(profile.getWorkingHours()));
+        MechanicProfile saved = mechanicProfileRepository.save(profile);
+        providerSearchProjectionService.sync(saved);
+        return saved;
     }
 
     public Optional<MechanicProfile> findById(String id) {
@@ -48,6 +60,8 @@ public class MechanicProfileService {
 
     public void deleteById(String id) {
         mechanicProfileRepository.deleteById(id);
+        providerGeoIndex.remove(id);
+        providerSearchProjectionService.remove(id);
     }
 
     // Business logic methods
@@ -55,7 +69,11 @@ public class MechanicProfileService {
         profile.setCreatedAt(LocalDateTime.now());
         profile.setUpdatedAt(LocalDateTime.now());
         profile.setIsProfileComplete(checkIfProfileComplete(profile));
-        return mechanicProfileRepository.save(profile);
+        profile.setServiceKeywords(ServiceKeywords.of(profile.getServicesOffered()));
+        profile.setWeeklyOpenSlots(WeeklyAvailability.of(profile.getWorkingHours()));
+        MechanicProfile saved = mechanicProfileRepository.save(profile);
+        providerSearchProjectionService.sync(saved);
+        return saved;
     }
 
     public MechanicProfile updateProfile(String id, MechanicProfile updatedProfile) {
@@ -72,7 +90,9 @@ public class MechanicProfileService {
                     existingProfile.setContactEmail(updatedProfile.getContactEmail());
                     existingProfile.setWebsite(updatedProfile.getWebsite());
                     existingProfile.setServicesOffered(updatedProfile.getServicesOffered());
+                    existingProfile.setServiceKeywords(ServiceKeywords.of(updatedProfile.getServicesOffered()));
                     existingProfile.setWorkingHours(updatedProfile.getWorkingHours());
+                    existingProfile.setWeeklyOpenSlots(WeeklyAvailability.of(updatedProfile.getWorkingHours()));
                     existingProfile.setCertifications(updatedProfile.getCertifications());
                     existingProfile.setLicenseNumber(updatedProfile.getLicenseNumber());
                     existingProfile.setInsuranceProvider(updatedProfile.getInsuranceProvider());
@@ -85,6 +105,7 @@ public class MechanicProfileService {
 
                     return mechanicProfileRepository.save(existingProfile);
                 })
+                .map(this::syncSearchProjection)
                 .orElse(null);
     }
 
@@ -143,6 +164,7 @@ public class MechanicProfileService {
                     profile.setUpdatedAt(LocalDateTime.now());
                     return mechanicProfileRepository.save(profile);
                 })
+                .map(this::syncSearchProjection)
                 .orElse(null);
     }
 
@@ -154,9 +176,15 @@ public class MechanicProfileService {
                     profile.setUpdatedAt(LocalDateTime.now());
                     return mechanicProfileRepository.save(profile);
                 })
+                .map(this::syncSearchProjection)
                 .orElse(null);
     }
 
+    private MechanicProfile syncSearchProjection(MechanicProfile profile) {
+        providerSearchProjectionService.sync(profile);
+        return profile;
+    }
+
     // Helper method to check if profile is complete
     private Boolean checkIfProfileComplete(MechanicProfile profile) {
         return profile.getBusinessName() != null && !profile.getBusinessName().trim().isEmpty() &&
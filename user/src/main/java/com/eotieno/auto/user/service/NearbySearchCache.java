@@ -0,0 +1,259 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.dto.LocationDTO;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchResult;
+import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDTO;
+import com.eotieno.auto.user.model.mechanic.ServiceCategory;
+import com.eotieno.auto.user.model.mechanic.ServiceKeywords;
+import com.eotieno.auto.user.model.mechanic.WeeklyAvailability;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Result cache for nearby searches. The search point is snapped to a grid cell and the radius rounded up
+ * to a step, so everyone in the same cell with the same filters shares one entry: every provider within
+ * the rounded radius plus the cell's half-diagonal of the cell centre, which covers the circle of any
+ * caller in the cell. Each request then measures distances from its own point, drops providers outside
+ * its real radius, and sorts and pages the rest.
+ * Entries are bounded by size and TTL, and dropped early when a provider inside their circle changes.
+ * Hit, miss, eviction and invalidation counts are published to Micrometer under cache=nearbySearch.
+ */
+@Component
+@Slf4j
+public class NearbySearchCache {
+
+    private static final String CACHE_NAME = "nearbySearch";
+    private static final double KM_PER_DEGREE = 111.32;
+
+    // Any Monday midnight; an open slot maps back to a time in this week
+    private static final LocalDateTime REFERENCE_MONDAY = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    private final boolean enabled;
+    private final double cellDegrees;
+    private final double radiusStepKm;
+    private final int maxCandidates;
+    // Furthest a caller in a cell can be from its centre (a degree of longitude is never longer than one of latitude)
+    private final double cellHalfDiagonalKm;
+    private final Cache<SearchKey, Candidates> cache;
+    private final LongAdder invalidations = new LongAdder();
+
+    public NearbySearchCache(@Value("${provider.search.cache.enabled:true}") boolean enabled,
+                             @Value("${provider.search.cache.cell-degrees:0.01}") double cellDegrees,
+                             @Value("${provider.search.cache.radius-step-km:1}") double radiusStepKm,
+                             @Value("${provider.search.cache.max-candidates:500}") int maxCandidates,
+                             @Value("${provider.search.cache.max-size:10000}") long maxSize,
+                             @Value("${provider.search.cache.ttl-seconds:60}") long ttlSeconds,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.cellDegrees = cellDegrees;
+        this.radiusStepKm = radiusStepKm;
+        this.maxCandidates = maxCandidates;
+        this.cellHalfDiagonalKm = Math.sqrt(2) * cellDegrees * KM_PER_DEGREE / 2;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        FunctionCounter.builder("cache.invalidations", invalidations, LongAdder::sum)
+                .tag("cache", CACHE_NAME)
+                .description("Entries dropped because a provider inside their search circle changed")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs one page of a nearby search
+     */
+    @FunctionalInterface
+    public interface SearchLoader {
+        NearbySearchResult load(NearbySearchRequest request, int page, int size);
+    }
+
+    // Everything that decides which providers a quantized search can return
+    record SearchKey(long latCell, long lngCell, double radiusKm, ServiceCategory category,
+                     List<String> serviceKeywords, Boolean emergencyService, Boolean mobileMechanic,
+                     Integer minRating, Boolean isVerified, String businessType, Integer openSlot) {
+    }
+
+    // Providers around a cell, or complete=false when there were more than max-candidates of them
+    private record Candidates(List<ServiceProviderDTO> providers, boolean complete) {
+    }
+
+    private record Hit(ServiceProviderDTO provider, double distanceKm) {
+    }
+
+    /**
+     * One page of the request's results, taken from the cached providers around its cell.
+     * Around cells with more than max-candidates providers the loader runs the exact request instead.
+     */
+    public NearbySearchResult get(NearbySearchRequest request, int page, int size, SearchLoader loader) {
+        if (!enabled) {
+            return loader.load(request, page, size);
+        }
+
+        Candidates candidates = cache.get(keyOf(request), key -> {
+            NearbySearchResult result = loader.load(toRequest(key), 0, maxCandidates);
+            return new Candidates(result.getProviders(), result.getTotal() <= maxCandidates);
+        });
+        if (!candidates.complete()) {
+            return loader.load(request, page, size);
+        }
+        return pageOf(candidates.providers(), request, page, size);
+    }
+
+    /**
+     * Drop every entry whose search circle contains the point, i.e. whose results a provider there can change
+     */
+    public void invalidateAround(double latitude, double longitude) {
+        if (!enabled) {
+            return;
+        }
+        cache.asMap().keySet().removeIf(key -> {
+            boolean affected = DistanceKernel.haversineKm(centreLat(key), centreLng(key), latitude, longitude)
+                    <= queryRadiusKm(key);
+            if (affected) {
+                invalidations.increment();
+            }
+            return affected;
+        });
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return cache.stats();
+    }
+
+    @Scheduled(fixedDelayString = "${provider.search.cache.stats-log-ms:300000}")
+    public void logStats() {
+        if (!enabled) {
+            return;
+        }
+        CacheStats stats = cache.stats();
+        log.info("Nearby search cache: size={}, hits={}, misses={}, hitRate={}, evictions={}, invalidations={}",
+                cache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                String.format("%.2f", stats.hitRate()), stats.evictionCount(), invalidations.sum());
+    }
+
+    // Distances from the caller's own point, then the caller's radius, sort and page
+    private NearbySearchResult pageOf(List<ServiceProviderDTO> candidates, NearbySearchRequest request,
+                                      int page, int size) {
+        double radiusKm = request.getRadius() != null ? request.getRadius() : 20.0;
+        List<Hit> hits = new ArrayList<>();
+        for (ServiceProviderDTO candidate : candidates) {
+            LocationDTO location = candidate.getLocation();
+            if (location == null || location.getLatitude() == null || location.getLongitude() == null) {
+                continue;
+            }
+            double distanceKm = DistanceKernel.haversineKm(request.getLatitude(), request.getLongitude(),
+                    location.getLatitude(), location.getLongitude());
+            if (distanceKm <= radiusKm) {
+                hits.add(new Hit(candidate, distanceKm));
+            }
+        }
+
+        hits.sort(comparator(request.getSortBy(), request.getSortDirection()));
+
+        return NearbySearchResult.builder()
+                .providers(hits.stream()
+                        .skip((long) page * size)
+                        .limit(size)
+                        .map(hit -> hit.provider().toBuilder()
+                                .distanceKm(Math.round(hit.distanceKm() * 100) / 100.0)
+                                .build())
+                        .collect(Collectors.toList()))
+                .total(hits.size())
+                .build();
+    }
+
+    // Same order as the aggregation: the requested field, then nearest first
+    private Comparator<Hit> comparator(String sortBy, String sortDirection) {
+        boolean descending = "DESC".equalsIgnoreCase(sortDirection);
+        Comparator<Hit> byDistance = Comparator.comparingDouble(Hit::distanceKm);
+
+        Comparator<Hit> primary = switch (sortBy != null ? sortBy.toLowerCase() : "distance") {
+            case "rating" -> Comparator.comparing(hit -> hit.provider().getRating(),
+                    Comparator.nullsFirst(Double::compare));
+            case "name" -> Comparator.comparing(hit -> hit.provider().getName(),
+                    Comparator.nullsFirst(String::compareTo));
+            default -> byDistance;
+        };
+        if (descending) {
+            primary = primary.reversed();
+        }
+        return primary == byDistance ? primary : primary.thenComparing(byDistance);
+    }
+
+    private SearchKey keyOf(NearbySearchRequest request) {
+        double radius = request.getRadius() != null ? request.getRadius() : 20.0;
+        String businessType = request.getBusinessType() != null && !request.getBusinessType().trim().isEmpty()
+                ? request.getBusinessType().trim().toUpperCase() : null;
+
+        return new SearchKey(
+                (long) Math.floor(request.getLatitude() / cellDegrees),
+                (long) Math.floor(request.getLongitude() / cellDegrees),
+                Math.ceil(radius / radiusStepKm) * radiusStepKm,
+                request.getCategory(),
+                ServiceKeywords.tokenize(request.getServiceName()),
+                request.getEmergencyService(),
+                request.getMobileMechanic(),
+                request.getMinRating(),
+                request.getIsVerified(),
+                businessType,
+                request.getOpenAt() != null ? WeeklyAvailability.slotOf(request.getOpenAt()) : null);
+    }
+
+    private NearbySearchRequest toRequest(SearchKey key) {
+        return NearbySearchRequest.builder()
+                .latitude(centreLat(key))
+                .longitude(centreLng(key))
+                .radius(queryRadiusKm(key))
+                .category(key.category())
+                .serviceName(key.serviceKeywords().isEmpty() ? null : String.join(" ", key.serviceKeywords()))
+                .emergencyService(key.emergencyService())
+                .mobileMechanic(key.mobileMechanic())
+                .minRating(key.minRating())
+                .isVerified(key.isVerified())
+                .businessType(key.businessType())
+                .openAt(key.openSlot() != null
+                        ? REFERENCE_MONDAY.plusMinutes((long) key.openSlot() * WeeklyAvailability.SLOT_MINUTES) : null)
+                .sortBy("distance")
+                .sortDirection("ASC")
+                .page(0)
+                .size(maxCandidates)
+                .build();
+    }
+
+    // Wide enough that the cached circle contains the circle of every caller in the cell
+    private double queryRadiusKm(SearchKey key) {
+        return key.radiusKm() + cellHalfDiagonalKm;
+    }
+
+    private double centreLat(SearchKey key) {
+        return (key.latCell() + 0.5) * cellDegrees;
+    }
+
+    private double centreLng(SearchKey key) {
+        return (key.lngCell() + 0.5) * cellDegrees;
+    }
+}
@@ -0,0 +1,434 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.dto.LocationDTO;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchResult;
+import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDTO;
+import com.eotieno.auto.user.model.mechanic.MechanicProfile;
+import com.eotieno.auto.user.model.mechanic.ServiceKeywords;
+import com.eotieno.auto.user.model.mechanic.ServiceOffered;
+import com.eotieno.auto.user.model.mechanic.WeeklyAvailability;
+import com.eotieno.auto.user.repository.MechanicProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Optional in-process geo index of searchable mechanic profiles, bucketed into a lat/lng degree grid.
+ * Radius and k-nearest searches with all NearbySearchRequest filters are answered from memory;
+ * Mongo stays the source of truth and serves any search that would scan more than max-cells grid cells.
+ * Warmed at startup, kept fresh by polling recently updated profiles and fully reloaded periodically
+ * so deletions made on other nodes are dropped too.
+ */
+@Component
+@Slf4j
+public class ProviderGeoIndex {
+
+    private static final double KM_PER_DEGREE = 111.32;
+
+    @Autowired
+    private MechanicProfileRepository mechanicProfileRepository;
+
+    @Value("${provider.search.geo-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${provider.search.geo-index.cell-degrees:0.05}")
+    private double cellDegrees;
+
+    @Value("${provider.search.geo-index.full-reload-minutes:60}")
+    private long fullReloadMinutes;
+
+    // Above this many cells a search is cheaper on Mongo's 2dsphere index
+    @Value("${provider.search.geo-index.max-cells:2500}")
+    private int maxCells;
+
+    private volatile State state = new State();
+    private volatile boolean ready;
+    private LocalDateTime lastSync;
+    private LocalDateTime lastFullReload;
+
+    // One indexed profile: position, filter attributes and the prebuilt DTO (without distance)
+    private record Entry(String id, double lat, double lng, long cell,
+                         Set<String> categories, Set<String> serviceKeywords,
+                         boolean emergencyService, boolean mobileMechanic, Double rating,
+                         boolean verified, String businessType, byte[] weeklyOpenSlots, ServiceProviderDTO dto) {
+    }
+
+    private record Hit(Entry entry, double distanceKm) {
+    }
+
+    private static class State {
+        final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        final Map<Long, Set<String>> cells = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * True once the index is enabled and loaded; until then searches go to Mongo
+     */
+    public boolean isReady() {
+        return enabled && ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        if (enabled) {
+            reload();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${provider.search.geo-index.refresh-ms:30000}",
+            initialDelayString = "${provider.search.geo-index.refresh-ms:30000}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        if (!ready || Duration.between(lastFullReload, LocalDateTime.now()).toMinutes() >= fullReloadMinutes) {
+            reload();
+            return;
+        }
+
+        try {
+            // Overlap the window slightly so writes committed around the last poll are not missed
+            LocalDateTime now = LocalDateTime.now();
+            List<MechanicProfile> changed = mechanicProfileRepository.findRecentlyUpdated(lastSync.minusSeconds(5));
+            changed.forEach(this::upsert);
+            lastSync = now;
+            if (!changed.isEmpty()) {
+                log.debug("Applied {} profile changes to the geo index", changed.size());
+            }
+        } catch (Exception e) {
+            log.error("Failed to refresh provider geo index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild the whole index off to the side, then swap it in
+     */
+    public synchronized void reload() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            State fresh = new State();
+            mechanicProfileRepository.findByIsProfileCompleteTrue().forEach(profile -> put(fresh, profile));
+
+            state = fresh;
+            lastSync = now;
+            lastFullReload = now;
+            ready = true;
+            log.info("Provider geo index loaded with {} profiles in {} cells", fresh.entries.size(), fresh.cells.size());
+        } catch (Exception e) {
+            log.error("Failed to load provider geo index, searches stay on Mongo: {}", e.getMessage());
+        }
+    }
+
+    public synchronized void upsert(MechanicProfile profile) {
+        put(state, profile);
+    }
+
+    public synchronized void remove(String profileId) {
+        removeEntry(state, profileId);
+    }
+
+    /**
+     * Radius search with the same filter and sort semantics as the Mongo aggregation.
+     * Empty when the radius covers more than max-cells grid cells.
+     */
+    public Optional<NearbySearchResult> search(NearbySearchRequest request, int page, int size) {
+        State current = state;
+        double lat = request.getLatitude();
+        double lng = request.getLongitude();
+        double radiusKm = request.getRadius();
+        List<Long> cells = cellsWithin(lat, lng, radiusKm);
+        if (cells.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Matcher matcher = new Matcher(request);
+        List<Hit> hits = new ArrayList<>();
+        for (long cell : cells) {
+            collectHits(current, cell, lat, lng, radiusKm, matcher, hits);
+        }
+
+        hits.sort(comparator(request.getSortBy(), request.getSortDirection()));
+
+        return Optional.of(NearbySearchResult.builder()
+                .providers(hits.stream()
+                        .skip((long) page * size)
+                        .limit(size)
+                        .map(hit -> withDistance(hit.entry().dto(), hit.distanceKm()))
+                        .collect(Collectors.toList()))
+                .total(hits.size())
+                .build());
+    }
+
+    /**
+     * The k nearest matching providers within the request radius, nearest first.
+     * Scans rings of grid cells outwards from the search point and stops as soon as k hits are
+     * closer than anything in an unscanned cell could be. Empty when that needs more than max-cells cells.
+     */
+    public Optional<List<ServiceProviderDTO>> nearest(NearbySearchRequest request, int k) {
+        State current = state;
+        double lat = request.getLatitude();
+        double lng = request.getLongitude();
+        double maxKm = request.getRadius() != null ? request.getRadius() : Double.MAX_VALUE;
+        int rows = (int) Math.ceil(180.0 / cellDegrees);
+        int cols = (int) Math.ceil(360.0 / cellDegrees);
+        int centreRow = row(lat);
+        int centreCol = col(lng);
+
+        Matcher matcher = new Matcher(request);
+        List<Hit> hits = new ArrayList<>();
+        Set<Long> visited = new HashSet<>();
+        long scanned = 0;
+        for (int ring = 0; scanned < maxCells; ring++) {
+            for (int r = centreRow - ring; r <= centreRow + ring; r++) {
+                if (r < 0 || r >= rows) {
+                    continue;
+                }
+                // Full rows at the top and bottom of the ring, only the two edge cells in between
+                int step = (r == centreRow - ring || r == centreRow + ring) ? 1 : Math.max(2 * ring, 1);
+                for (int c = centreCol - ring; c <= centreCol + ring; c += step) {
+                    long cell = key(r, Math.floorMod(c, cols));
+                    if (visited.add(cell)) {
+                        collectHits(current, cell, lat, lng, maxKm, matcher, hits);
+                    }
+                }
+            }
+            scanned += ring == 0 ? 1 : 8L * ring;
+
+            double coveredKm = coveredKm(lat, lng, centreRow, centreCol, ring, rows);
+            hits.sort(Comparator.comparingDouble(Hit::distanceKm));
+            long confirmed = hits.stream().filter(hit -> hit.distanceKm() <= coveredKm).count();
+            if (confirmed >= k || coveredKm >= maxKm) {
+                return Optional.of(hits.stream()
+                        .limit(k)
+                        .map(hit -> withDistance(hit.entry().dto(), hit.distanceKm()))
+                        .collect(Collectors.toList()));
+            }
+        }
+        return Optional.empty();
+    }
+
+    private void collectHits(State current, long cell, double lat, double lng, double maxKm,
+                             Matcher matcher, List<Hit> hits) {
+        Set<String> ids = current.cells.get(cell);
+        if (ids == null) {
+            return;
+        }
+        for (String id : ids) {
+            Entry entry = current.entries.get(id);
+            if (entry == null) {
+                continue;
+            }
+            double distanceKm = DistanceKernel.haversineKm(lat, lng, entry.lat(), entry.lng());
+            if (distanceKm <= maxKm && matcher.matches(entry)) {
+                hits.add(new Hit(entry, distanceKm));
+            }
+        }
+    }
+
+    // Distance from the search point to the nearest edge of the block of cells scanned so far
+    private double coveredKm(double lat, double lng, int centreRow, int centreCol, int ring, int rows) {
+        double south = (centreRow - ring) * cellDegrees - 90.0;
+        double north = (centreRow + ring + 1) * cellDegrees - 90.0;
+        double west = (centreCol - ring) * cellDegrees - 180.0;
+        double east = (centreCol + ring + 1) * cellDegrees - 180.0;
+
+        double northKm = centreRow + ring + 1 >= rows ? Double.MAX_VALUE : (north - lat) * KM_PER_DEGREE;
+        double southKm = centreRow - ring <= 0 ? Double.MAX_VALUE : (lat - south) * KM_PER_DEGREE;
+        // A degree of longitude is shortest at the block's most polar latitude
+        double cosLat = Math.cos(Math.toRadians(Math.min(Math.max(Math.abs(north), Math.abs(south)), 90.0)));
+        double eastWestKm = 2 * ring + 1 >= (int) Math.ceil(360.0 / cellDegrees)
+                ? Double.MAX_VALUE
+                : Math.min(lng - west, east - lng) * KM_PER_DEGREE * cosLat;
+        return Math.min(Math.min(northKm, southKm), eastWestKm);
+    }
+
+    private void put(State target, MechanicProfile profile) {
+        GeoJsonPoint point = profile.getLocation() != null ? profile.getLocation().getCoordinates() : null;
+        if (!Boolean.TRUE.equals(profile.getIsProfileComplete()) || point == null) {
+            removeEntry(target, profile.getId());
+            return;
+        }
+
+        Entry entry = toEntry(profile, point);
+        Entry previous = target.entries.put(entry.id(), entry);
+        if (previous != null && previous.cell() != entry.cell()) {
+            removeFromCell(target, previous.cell(), previous.id());
+        }
+        target.cells.computeIfAbsent(entry.cell(), key -> ConcurrentHashMap.newKeySet()).add(entry.id());
+    }
+
+    private void removeEntry(State target, String profileId) {
+        Entry previous = target.entries.remove(profileId);
+        if (previous != null) {
+            removeFromCell(target, previous.cell(), profileId);
+        }
+    }
+
+    private void removeFromCell(State target, long cell, String profileId) {
+        target.cells.computeIfPresent(cell, (key, ids) -> {
+            ids.remove(profileId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private Entry toEntry(MechanicProfile profile, GeoJsonPoint point) {
+        double lat = point.getY(); // getY() = latitude
+        double lng = point.getX(); // getX() = longitude
+        List<ServiceOffered> services = profile.getServicesOffered() != null ? profile.getServicesOffered() : List.of();
+
+        ServiceProviderDTO dto = ServiceProviderDTO.builder()
+                .id(profile.getId())
+                .name(profile.getBusinessName())
+                .location(LocationDTO.builder()
+                        .latitude(lat)
+                        .longitude(lng)
+                        .address(profile.getLocation().getAddress())
+                        .build())
+                .services(services.stream().map(ServiceOffered::getName).collect(Collectors.toList()))
+                .rating(profile.getAverageRating() != null ? profile.getAverageRating() : 0.0)
+                .phoneNumber(profile.getContactPhone())
+                .email(profile.getContactEmail())
+                .workingHours(ServiceProviderService.formatWorkingHours(profile.getWorkingHours()))
+                .description(profile.getDescription())
+                .build();
+
+        return new Entry(profile.getId(), lat, lng, cellOf(lat, lng),
+                services.stream()
+                        .filter(service -> service.getCategory() != null)
+                        .map(service -> service.getCategory().name())
+                        .collect(Collectors.toSet()),
+                new HashSet<>(ServiceKeywords.of(services)),
+                Boolean.TRUE.equals(profile.getEmergencyService()),
+                Boolean.TRUE.equals(profile.getMobileMechanic()),
+                profile.getAverageRating(),
+                Boolean.TRUE.equals(profile.getIsVerified()),
+                profile.getBusinessType() != null ? profile.getBusinessType().name() : null,
+                WeeklyAvailability.of(profile.getWorkingHours()),
+                dto);
+    }
+
+    // The request's filters, with keywords and open slot resolved once per search
+    private static final class Matcher {
+        private final NearbySearchRequest request;
+        private final List<String> serviceKeywords;
+        private final int openSlot;
+
+        private Matcher(NearbySearchRequest request) {
+            this.request = request;
+            this.serviceKeywords = ServiceKeywords.tokenize(request.getServiceName());
+            this.openSlot = request.getOpenAt() != null ? WeeklyAvailability.slotOf(request.getOpenAt()) : -1;
+        }
+
+        private boolean matches(Entry entry) {
+            if (openSlot >= 0 && !WeeklyAvailability.isOpen(entry.weeklyOpenSlots(), openSlot)) {
+                return false;
+            }
+            if (request.getCategory() != null && !entry.categories().contains(request.getCategory().name())) {
+                return false;
+            }
+            if (!entry.serviceKeywords().containsAll(serviceKeywords)) {
+                return false;
+            }
+            if (request.getEmergencyService() != null && entry.emergencyService() != request.getEmergencyService()) {
+                return false;
+            }
+            if (request.getMobileMechanic() != null && entry.mobileMechanic() != request.getMobileMechanic()) {
+                return false;
+            }
+            if (request.getMinRating() != null && (entry.rating() == null || entry.rating() < request.getMinRating())) {
+                return false;
+            }
+            if (request.getIsVerified() != null && entry.verified() != request.getIsVerified()) {
+                return false;
+            }
+            return request.getBusinessType() == null || request.getBusinessType().equalsIgnoreCase(entry.businessType());
+        }
+    }
+
+    private Comparator<Hit> comparator(String sortBy, String sortDirection) {
+        boolean descending = "DESC".equalsIgnoreCase(sortDirection);
+        Comparator<Hit> byDistance = Comparator.comparingDouble(Hit::distanceKm);
+
+        Comparator<Hit> primary = switch (sortBy != null ? sortBy.toLowerCase() : "distance") {
+            case "rating" -> Comparator.comparing(hit -> hit.entry().rating(), Comparator.nullsFirst(Double::compare));
+            case "name" -> Comparator.comparing(hit -> hit.entry().dto().getName(),
+                    Comparator.nullsFirst(String::compareTo));
+            default -> byDistance;
+        };
+        if (descending) {
+            primary = primary.reversed();
+        }
+        return primary == byDistance ? primary : primary.thenComparing(byDistance);
+    }
+
+    // Grid cells overlapping the bounding box of the search circle; empty when there are more than max-cells
+    private List<Long> cellsWithin(double lat, double lng, double radiusKm) {
+        double dLat = radiusKm / KM_PER_DEGREE;
+        double cosLat = Math.max(Math.cos(Math.toRadians(lat)), 0.01);
+        double dLng = Math.min(radiusKm / (KM_PER_DEGREE * cosLat), 180.0);
+
+        int rows = (int) Math.ceil(180.0 / cellDegrees);
+        int cols = (int) Math.ceil(360.0 / cellDegrees);
+        int minRow = Math.max(row(lat - dLat), 0);
+        int maxRow = Math.min(row(lat + dLat), rows - 1);
+        int minCol = col(lng - dLng);
+        int maxCol = col(lng + dLng);
+        int colSpan = dLng >= 180.0 ? cols : Math.min(maxCol - minCol + 1, cols);
+        if ((long) (maxRow - minRow + 1) * colSpan > maxCells) {
+            return List.of();
+        }
+
+        List<Long> cells = new ArrayList<>();
+        for (int row = minRow; row <= maxRow; row++) {
+            for (int offset = 0; offset < colSpan; offset++) {
+                int wrapped = Math.floorMod(minCol + offset, cols);
+                cells.add(key(row, wrapped));
+            }
+        }
+        return cells;
+    }
+
+    private long cellOf(double lat, double lng) {
+        int cols = (int) Math.ceil(360.0 / cellDegrees);
+        return key(row(lat), Math.floorMod(col(lng), cols));
+    }
+
+    private int row(double lat) {
+        return (int) Math.floor((lat + 90.0) / cellDegrees);
+    }
+
+    private int col(double lng) {
+        return (int) Math.floor((lng + 180.0) / cellDegrees);
+    }
+
+    private static long key(int row, int col) {
+        return ((long) row << 32) | (col & 0xffffffffL);
+    }
+
+    private ServiceProviderDTO withDistance(ServiceProviderDTO dto, double distanceKm) {
+        return ServiceProviderDTO.builder()
+                .id(dto.getId())
+                .name(dto.getName())
+                .location(dto.getLocation())
+                .services(dto.getServices())
+                .rating(dto.getRating())
+                .phoneNumber(dto.getPhoneNumber())
+                .email(dto.getEmail())
+                .workingHours(dto.getWorkingHours())
+                .description(dto.getDescription())
+                .distanceKm(Math.round(distanceKm * 100) / 100.0)
+                .build();
+    }
+}
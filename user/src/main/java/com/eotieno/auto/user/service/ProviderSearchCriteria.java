@@ -0,0 +1,103 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.model.mechanic.ServiceCategory;
+import com.eotieno.auto.user.model.mechanic.ServiceKeywords;
+import com.eotieno.auto.user.model.mechanic.WeeklyAvailability;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Composes any subset of the nearby-search filters into one query over the provider_search projection.
+ * Null or blank arguments add nothing, so callers can pass request fields straight through.
+ */
+public class ProviderSearchCriteria {
+
+    private final List<Criteria> filters = new ArrayList<>();
+
+    public static ProviderSearchCriteria builder() {
+        return new ProviderSearchCriteria();
+    }
+
+    /**
+     * Every filter set on the request
+     */
+    public static ProviderSearchCriteria from(NearbySearchRequest request) {
+        return builder()
+                .category(request.getCategory())
+                .serviceName(request.getServiceName())
+                .emergencyService(request.getEmergencyService())
+                .mobileMechanic(request.getMobileMechanic())
+                .minRating(request.getMinRating())
+                .verified(request.getIsVerified())
+                .businessType(request.getBusinessType())
+                .openAt(request.getOpenAt());
+    }
+
+    public ProviderSearchCriteria category(ServiceCategory category) {
+        if (category != null) {
+            filters.add(Criteria.where("serviceCategories").is(category.name()));
+        }
+        return this;
+    }
+
+    // Tokenized like the stored keywords, so the match is index-backed and the input is never a regex
+    public ProviderSearchCriteria serviceName(String serviceName) {
+        List<String> serviceKeywords = ServiceKeywords.tokenize(serviceName);
+        if (!serviceKeywords.isEmpty()) {
+            filters.add(Criteria.where("serviceKeywords").all(serviceKeywords));
+        }
+        return this;
+    }
+
+    public ProviderSearchCriteria emergencyService(Boolean emergencyService) {
+        if (emergencyService != null) {
+            filters.add(Criteria.where("emergencyService").is(emergencyService));
+        }
+        return this;
+    }
+
+    public ProviderSearchCriteria mobileMechanic(Boolean mobileMechanic) {
+        if (mobileMechanic != null) {
+            filters.add(Criteria.where("mobileMechanic").is(mobileMechanic));
+        }
+        return this;
+    }
+
+    public ProviderSearchCriteria minRating(Number minRating) {
+        if (minRating != null) {
+            filters.add(Criteria.where("averageRating").gte(minRating));
+        }
+        return this;
+    }
+
+    public ProviderSearchCriteria verified(Boolean verified) {
+        if (verified != null) {
+            filters.add(Criteria.where("isVerified").is(verified));
+        }
+        return this;
+    }
+
+    public ProviderSearchCriteria businessType(String businessType) {
+        if (businessType != null && !businessType.trim().isEmpty()) {
+            filters.add(Criteria.where("businessType").is(businessType.trim().toUpperCase()));
+        }
+        return this;
+    }
+
+    // Bit test on the weekly bitmap for the 15-minute slot containing the time
+    public ProviderSearchCriteria openAt(LocalDateTime openAt) {
+        if (openAt != null) {
+            filters.add(Criteria.where("weeklyOpenSlots").bits().allSet(List.of(WeeklyAvailability.slotOf(openAt))));
+        }
+        return this;
+    }
+
+    public Criteria build() {
+        // Only complete profiles are projected into provider_search, so no completeness filter is needed
+        return filters.isEmpty() ? new Criteria() : new Criteria().andOperator(filters.toArray(new Criteria[0]));
+    }
+}
@@ -0,0 +1,155 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.model.Location;
+import com.eotieno.auto.user.model.mechanic.MechanicProfile;
+import com.eotieno.auto.user.model.mechanic.ProviderSearchDocument;
+import com.eotieno.auto.user.model.mechanic.ServiceKeywords;
+import com.eotieno.auto.user.model.mechanic.ServiceOffered;
+import com.eotieno.auto.user.model.mechanic.WeeklyAvailability;
+import com.eotieno.auto.user.repository.MechanicProfileRepository;
+import com.eotieno.auto.user.repository.ProviderSearchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the provider_search projection in step with mechanic_profiles.
+ * Complete profiles with coordinates get a document, anything else is removed from the projection.
+ */
+@Service
+@Slf4j
+public class ProviderSearchProjectionService {
+
+    @Autowired
+    private ProviderSearchRepository providerSearchRepository;
+
+    @Autowired
+    private MechanicProfileRepository mechanicProfileRepository;
+
+    @Autowired
+    private NearbySearchCache nearbySearchCache;
+
+    /**
+     * Backfill the projection on first start against an existing profile collection,
+     * or when documents predate a projected field
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (providerSearchRepository.count() == 0 || providerSearchRepository.existsByServiceKeywordsIsNull()
+                    || providerSearchRepository.existsByWeeklyOpenSlotsIsNull()) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Failed to backfill provider search projection: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild every projection document from the profiles.
+     * Documents are upserted by id and only orphans are deleted afterwards, so searches keep
+     * seeing the projection while it rebuilds and concurrent rebuilds on several nodes are harmless.
+     */
+    public void rebuild() {
+        LocalDateTime startedAt = LocalDateTime.now();
+        List<ProviderSearchDocument> documents = mechanicProfileRepository.findByIsProfileCompleteTrue().stream()
+                .filter(this::isSearchable)
+                .map(this::toDocument)
+                .collect(Collectors.toList());
+
+        providerSearchRepository.saveAll(documents);
+        long removed = providerSearchRepository.deleteOrphans(documents.stream()
+                .map(ProviderSearchDocument::getId)
+                .collect(Collectors.toSet()), startedAt);
+        nearbySearchCache.invalidateAll();
+        log.info("Rebuilt provider search projection with {} documents, removed {} orphans", documents.size(), removed);
+    }
+
+    /**
+     * Write (or drop) the projection for a profile that was just saved
+     */
+    public void sync(MechanicProfile profile) {
+        if (profile == null || profile.getId() == null) {
+            return;
+        }
+
+        // A failed projection write must not fail the profile update; the next write or a rebuild repairs it
+        try {
+            // Cached searches around both the old and the new position may change
+            providerSearchRepository.findById(profile.getId()).ifPresent(this::invalidateCachedSearches);
+            if (isSearchable(profile)) {
+                ProviderSearchDocument document = providerSearchRepository.save(toDocument(profile));
+                invalidateCachedSearches(document);
+            } else {
+                providerSearchRepository.deleteById(profile.getId());
+            }
+        } catch (Exception e) {
+            log.error("Failed to update provider search projection for {}: {}", profile.getId(), e.getMessage());
+        }
+    }
+
+    public void remove(String profileId) {
+        try {
+            providerSearchRepository.findById(profileId).ifPresent(this::invalidateCachedSearches);
+            providerSearchRepository.deleteById(profileId);
+        } catch (Exception e) {
+            log.error("Failed to remove provider search projection for {}: {}", profileId, e.getMessage());
+        }
+    }
+
+    private void invalidateCachedSearches(ProviderSearchDocument document) {
+        GeoJsonPoint point = document.getLocation() != null ? document.getLocation().getCoordinates() : null;
+        if (point != null) {
+            nearbySearchCache.invalidateAround(point.getY(), point.getX()); // getY() = latitude
+        }
+    }
+
+    private boolean isSearchable(MechanicProfile profile) {
+        return Boolean.TRUE.equals(profile.getIsProfileComplete())
+                && profile.getLocation() != null
+                && profile.getLocation().getCoordinates() != null;
+    }
+
+    private ProviderSearchDocument toDocument(MechanicProfile profile) {
+        List<ServiceOffered> services = profile.getServicesOffered() != null ? profile.getServicesOffered() : List.of();
+
+        Location location = new Location();
+        location.setCoordinates(profile.getLocation().getCoordinates());
+        location.setAddress(profile.getLocation().getAddress());
+
+        return ProviderSearchDocument.builder()
+                .id(profile.getId())
+                .businessName(profile.getBusinessName())
+                .businessType(profile.getBusinessType())
+                .location(location)
+                .serviceNames(services.stream()
+                        .map(ServiceOffered::getName)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toList()))
+                .serviceKeywords(ServiceKeywords.of(services))
+                .serviceCategories(services.stream()
+                        .map(ServiceOffered::getCategory)
+                        .filter(Objects::nonNull)
+                        .distinct()
+                        .collect(Collectors.toList()))
+                .emergencyService(Boolean.TRUE.equals(profile.getEmergencyService()))
+                .mobileMechanic(Boolean.TRUE.equals(profile.getMobileMechanic()))
+                .isVerified(Boolean.TRUE.equals(profile.getIsVerified()))
+                .averageRating(profile.getAverageRating())
+                .contactPhone(profile.getContactPhone())
+                .contactEmail(profile.getContactEmail())
+                .workingHours(ServiceProviderService.formatWorkingHours(profile.getWorkingHours()))
+                .weeklyOpenSlots(WeeklyAvailability.of(profile.getWorkingHours()))
+                .description(profile.getDescription())
+                .updatedAt(profile.getUpdatedAt())
+                .build();
+    }
+}
@@ -0,0 +1,125 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.exceptions.InvalidRefreshTokenException;
+import com.eotieno.auto.user.model.RefreshToken;
+import com.eotieno.auto.user.repository.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+
+/**
+ * Issues, rotates and revokes refresh tokens. Refreshing only hashes and looks up the token,
+ * so it never touches the password encoder.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RefreshTokenService {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final RefreshTokenRepository refreshTokenRepository;
+
+    @Value("${security.refresh-token.ttl-days:30}")
+    private long ttlDays;
+
+    // Reuse this soon after rotation is a client racing itself (two tabs, a retried request), not theft
+    @Value("${security.refresh-token.reuse-grace-seconds:10}")
+    private long reuseGraceSeconds;
+
+    // The raw token goes to the client once; only its hash is kept
+    public record IssuedRefreshToken(String token, Instant expiresAt) {
+    }
+
+    // Owner of a rotated token plus its successor
+    public record Rotation(Long userId, IssuedRefreshToken next) {
+    }
+
+    @Transactional
+    public IssuedRefreshToken issue(Long userId) {
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        RefreshToken refreshToken = refreshTokenRepository.save(RefreshToken.builder()
+                .userId(userId)
+                .tokenHash(hash(token))
+                .createdAt(now)
+                .expiresAt(now.plus(Duration.ofDays(ttlDays)))
+                .build());
+        return new IssuedRefreshToken(token, refreshToken.getExpiresAt());
+    }
+
+    /**
+     * Spend the token and issue its successor. A token that was already used signals theft,
+     * so every refresh token of that user is revoked. noRollbackFor keeps that revocation.
+     * Within the reuse grace window the request is only refused: the successor already issued stays valid.
+     */
+    @Transactional(noRollbackFor = InvalidRefreshTokenException.class)
+    public Rotation rotate(String token) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(token))
+                .orElseThrow(() -> new InvalidRefreshTokenException("Invalid refresh token"));
+
+        Instant now = Instant.now();
+        if (current.getExpiresAt().isBefore(now)) {
+            throw new InvalidRefreshTokenException("Refresh token has expired");
+        }
+        if (current.getRevokedAt() != null || refreshTokenRepository.revoke(current.getId(), now) == 0) {
+            // revokedAt is null when a concurrent refresh spent the token after it was read
+            Instant revokedAt = current.getRevokedAt() != null ? current.getRevokedAt() : now;
+            if (revokedAt.plusSeconds(reuseGraceSeconds).isAfter(now)) {
+                log.info("Refresh token for user {} reused within the grace window", current.getUserId());
+            } else {
+                log.warn("Refresh token reuse for user {}; revoking all of their refresh tokens", current.getUserId());
+                refreshTokenRepository.revokeAllForUser(current.getUserId(), now);
+            }
+            throw new InvalidRefreshTokenException("Refresh token has already been used");
+        }
+
+        return new Rotation(current.getUserId(), issue(current.getUserId()));
+    }
+
+    /**
+     * Revoke one token (logout); unknown tokens are ignored. Returns the owner when there was one
+     */
+    @Transactional
+    public Long revoke(String token) {
+        return refreshTokenRepository.findByTokenHash(hash(token))
+                .map(refreshToken -> {
+                    refreshTokenRepository.revoke(refreshToken.getId(), Instant.now());
+                    return refreshToken.getUserId();
+                })
+                .orElse(null);
+    }
+
+    @Scheduled(cron = "${security.refresh-token.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpiredBefore(Instant.now());
+        if (deleted > 0) {
+            log.info("Purged {} expired refresh tokens", deleted);
+        }
+    }
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
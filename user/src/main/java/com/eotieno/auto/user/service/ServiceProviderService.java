@@ -1,16 +1,33 @@
 package com.eotieno.auto.user.service;
 
 import com.eotieno.auto.user.dto.LocationDTO;
+import com.eotieno.auto.user.dto.serviceProvider.DistanceMatrixDTO;
+import com.eotieno.auto.user.dto.serviceProvider.DistanceMatrixRequest;
+import com.eotieno.auto.user.dto.serviceProvider.NearbyMechanic;
 import com.eotieno.auto.user.dto.serviceProvider.NearbySearchRequest;
+import com.eotieno.auto.user.dto.serviceProvider.NearbySearchResult;
 import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDTO;
 import com.eotieno.auto.user.dto.serviceProvider.ServiceProviderDetailsDTO;
 import com.eotieno.auto.user.model.mechanic.*;
 import com.eotieno.auto.user.repository.MechanicProfileRepository;
+import lombok.Data;
+import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOptions;
 import org.springframework.data.mongodb.core.geo.GeoJsonPoint;
+import org.springframework.data.mongodb.core.query.NearQuery;
+import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -18,28 +35,171 @@ import java.util.stream.Collectors;
 @Slf4j
 public class ServiceProviderService {
 
+    private static final String PROVIDER_SEARCH = "provider_search";
+    private static final int MAX_PAGE_SIZE = 100;
+
     @Autowired
     private MechanicProfileRepository mechanicProfileRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ProviderGeoIndex providerGeoIndex;
+
+    @Autowired
+    private NearbySearchCache nearbySearchCache;
+
+    // Working hours are entered in provider local time
+    @Value("${provider.search.time-zone:Africa/Nairobi}")
+    private ZoneId providerTimeZone;
+
+    // Shape of the $facet output: one page of rows plus a single-element count array
+    @Data
+    @NoArgsConstructor
+    static class NearbyFacet {
+        private List<NearbyMechanic> results;
+        private List<TotalCount> totalCount;
+    }
+
+    @Data
+    @NoArgsConstructor
+    static class TotalCount {
+        private long total;
+    }
+
     /**
      * Get nearby service providers based on search criteria
      */
     public List<ServiceProviderDTO> getNearbyServiceProviders(NearbySearchRequest request) {
+        return searchNearbyServiceProviders(request).getProviders();
+    }
+
+    /**
+     * Get one page of nearby service providers plus the total match count.
+     * Served from ProviderGeoIndex when it is enabled and loaded, otherwise filtering, sorting,
+     * paging and projection all run inside a single $geoNear aggregation over the provider_search projection,
+     * with results shared per geo cell through NearbySearchCache.
+     */
+    public NearbySearchResult searchNearbyServiceProviders(NearbySearchRequest request) {
         log.info("Searching for nearby service providers with criteria: {}", request);
 
-        // Convert radius from kilometers to meters for MongoDB
-        Double radiusMeters = request.getRadius() * 1000;
+        int size = Math.min(Math.max(request.getSize() != null ? request.getSize() : 20, 1), MAX_PAGE_SIZE);
+        int page = Math.max(request.getPage() != null ? request.getPage() : 0, 0);
+        if (Boolean.TRUE.equals(request.getOpenNow()) && request.getOpenAt() == null) {
+            request.setOpenAt(LocalDateTime.now(providerTimeZone));
+        }
 
-        List<MechanicProfile> mechanics = findMechanicsBySearchCriteria(request, radiusMeters);
+        if (providerGeoIndex.isReady()) {
+            try {
+                Optional<NearbySearchResult> indexed = providerGeoIndex.search(request, page, size);
+                if (indexed.isPresent()) {
+                    return indexed.get();
+                }
+            } catch (Exception e) {
+                log.warn("Geo index search failed, falling back to Mongo: {}", e.getMessage());
+            }
+        }
 
-        // Apply additional filters and convert to DTOs
-        return mechanics.stream()
-                .filter(mechanic -> applyAdditionalFilters(mechanic, request))
-                .map(mechanic -> convertToServiceProviderDTO(mechanic, request.getLatitude(), request.getLongitude()))
-                .sorted(getSortComparator(request.getSortBy(), request.getSortDirection()))
-                .skip((long) request.getPage() * request.getSize())
-                .limit(request.getSize())
-                .collect(Collectors.toList());
+        return nearbySearchCache.get(request, page, size, this::aggregateNearby);
+    }
+
+    /**
+     * Get the k nearest service providers matching the request filters, within the request radius.
+     * Served from ProviderGeoIndex when it can answer without scanning too many cells, otherwise by
+     * the $geoNear aggregation, which already returns rows nearest first.
+     */
+    public List<ServiceProviderDTO> getNearestServiceProviders(NearbySearchRequest request, int k) {
+        log.info("Searching for the {} nearest service providers with criteria: {}", k, request);
+
+        int limit = Math.min(Math.max(k, 1), MAX_PAGE_SIZE);
+        if (Boolean.TRUE.equals(request.getOpenNow()) && request.getOpenAt() == null) {
+            request.setOpenAt(LocalDateTime.now(providerTimeZone));
+        }
+
+        if (providerGeoIndex.isReady()) {
+            try {
+                Optional<List<ServiceProviderDTO>> indexed = providerGeoIndex.nearest(request, limit);
+                if (indexed.isPresent()) {
+                    return indexed.get();
+                }
+            } catch (Exception e) {
+                log.warn("Geo index nearest search failed, falling back to Mongo: {}", e.getMessage());
+            }
+        }
+
+        request.setPage(0);
+        request.setSize(limit);
+        request.setSortBy("distance");
+        request.setSortDirection("ASC");
+        return nearbySearchCache.get(request, 0, limit, this::aggregateNearby).getProviders();
+    }
+
+    /**
+     * Run the $geoNear aggregation for one page
+     */
+    private NearbySearchResult aggregateNearby(NearbySearchRequest request, int page, int size) {
+        NearbyFacet facet = mongoTemplate.aggregate(nearbyAggregation(request, page, size, false),
+                        PROVIDER_SEARCH, NearbyFacet.class)
+                .getUniqueMappedResult();
+        if (facet == null || facet.getResults() == null) {
+            return NearbySearchResult.builder().providers(new ArrayList<>()).total(0).build();
+        }
+
+        return NearbySearchResult.builder()
+                .providers(facet.getResults().stream()
+                        .map(this::convertToServiceProviderDTO)
+                        .collect(Collectors.toList()))
+                .total(facet.getTotalCount() != null && !facet.getTotalCount().isEmpty()
+                        ? facet.getTotalCount().get(0).getTotal() : 0)
+                .build();
+    }
+
+    /**
+     * Query plan of the nearby aggregation for a request, as returned by explain
+     */
+    public Document explainNearbySearch(NearbySearchRequest request) {
+        return mongoTemplate.aggregate(nearbyAggregation(request, 0, 1, true), PROVIDER_SEARCH, Document.class)
+                .getRawResults();
+    }
+
+    private Aggregation nearbyAggregation(NearbySearchRequest request, int page, int size, boolean explain) {
+        // Convert radius from kilometers to meters for MongoDB
+        NearQuery nearQuery = NearQuery.near(new GeoJsonPoint(request.getLongitude(), request.getLatitude()))
+                .spherical(true)
+                .maxDistance(request.getRadius() * 1000)
+                .query(new Query(ProviderSearchCriteria.from(request).build()));
+
+        List<AggregationOperation> pageStages = new ArrayList<>();
+        sortOperation(request.getSortBy(), request.getSortDirection()).ifPresent(pageStages::add);
+        pageStages.add(Aggregation.skip((long) page * size));
+        pageStages.add(Aggregation.limit(size));
+        pageStages.add(Aggregation.project("businessName", "location", "averageRating", "contactPhone",
+                        "contactEmail", "workingHours", "description", "distance", "serviceNames"));
+
+        return Aggregation.newAggregation(
+                Aggregation.geoNear(nearQuery, "distance").useIndex("location.coordinates"),
+                Aggregation.facet(pageStages.toArray(new AggregationOperation[0])).as("results")
+                        .and(Aggregation.count().as("total")).as("totalCount"))
+                .withOptions(AggregationOptions.builder().hint(geoIndexHint(request)).explain(explain).build());
+    }
+
+    /**
+     * The provider_search geo index whose suffix keys bound this request's most selective filter;
+     * null leaves the choice to the planner
+     */
+    private Document geoIndexHint(NearbySearchRequest request) {
+        Document geo = new Document("location.coordinates", "2dsphere");
+        if (!ServiceKeywords.tokenize(request.getServiceName()).isEmpty()) {
+            return geo.append("serviceKeywords", 1);
+        }
+        if (request.getCategory() != null) {
+            return geo.append("serviceCategories", 1);
+        }
+        if (request.getEmergencyService() != null || request.getMobileMechanic() != null) {
+            return geo.append("emergencyService", 1).append("mobileMechanic", 1);
+        }
+        return null;
     }
 
     /**
@@ -58,6 +218,18 @@ public class ServiceProviderService {
         return convertToServiceProviderDetailsDTO(profileOpt.get());
     }
 
+    /**
+     * Get details for many service providers in one query; unknown ids are left out
+     */
+    public List<ServiceProviderDetailsDTO> getServiceProviderDetails(Collection<String> providerIds) {
+        log.info("Fetching service provider details for {} IDs", providerIds.size());
+
+        List<ServiceProviderDetailsDTO> details = new ArrayList<>();
+        mechanicProfileRepository.findAllById(new LinkedHashSet<>(providerIds))
+                .forEach(profile -> details.add(convertToServiceProviderDetailsDTO(profile)));
+        return details;
+    }
+
     /**
      * Get nearby service providers by category
      */
@@ -177,86 +349,26 @@ public class ServiceProviderService {
     // PRIVATE HELPER METHODS
 
     /**
-     * Find mechanics based on search criteria
+     * Sort stage for the requested order; $geoNear output is already nearest-first.
+     * Ties on rating or name are broken by distance so the closest provider still comes first.
      */
-    private List<MechanicProfile> findMechanicsBySearchCriteria(NearbySearchRequest request, Double radiusMeters) {
-        if (request.getCategory() != null) {
-            return mechanicProfileRepository.findNearbyMechanicsByCategory(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    radiusMeters,
-                    request.getCategory()
-            );
-        } else if (request.getServiceName() != null && !request.getServiceName().trim().isEmpty()) {
-            return mechanicProfileRepository.findNearbyMechanicsByServiceName(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    radiusMeters,
-                    request.getServiceName().trim()
-            );
-        } else if (request.getEmergencyService() != null && request.getEmergencyService()) {
-            return mechanicProfileRepository.findNearbyEmergencyMechanics(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    radiusMeters,
-                    true
-            );
-        } else if (request.getMobileMechanic() != null && request.getMobileMechanic()) {
-            return mechanicProfileRepository.findNearbyMobileMechanics(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    radiusMeters,
-                    true
-            );
-        } else {
-            return mechanicProfileRepository.findNearbyMechanics(
-                    request.getLatitude(),
-                    request.getLongitude(),
-                    radiusMeters
-            );
-        }
+    private Optional<AggregationOperation> sortOperation(String sortBy, String sortDirection) {
+        Sort.Direction direction = "DESC".equalsIgnoreCase(sortDirection) ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort byDistance = Sort.by(Sort.Direction.ASC, "distance");
+
+        return switch (sortBy != null ? sortBy.toLowerCase() : "distance") {
+            case "rating" -> Optional.of(Aggregation.sort(Sort.by(direction, "averageRating").and(byDistance)));
+            case "name" -> Optional.of(Aggregation.sort(Sort.by(direction, "businessName").and(byDistance)));
+            default -> direction == Sort.Direction.ASC
+                    ? Optional.empty()
+                    : Optional.of(Aggregation.sort(direction, "distance"));
+        };
     }
 
     /**
-     * Apply additional filters to mechanic profiles
+     * Convert a nearby-search row to ServiceProviderDTO
      */
-    private boolean applyAdditionalFilters(MechanicProfile mechanic, NearbySearchRequest request) {
-        // Filter by business type
-        if (request.getBusinessType() != null &&
-                !request.getBusinessType().equalsIgnoreCase(mechanic.getBusinessType().name())) {
-            return false;
-        }
-
-        // Filter by minimum rating
-        if (request.getMinRating() != null &&
-                (mechanic.getAverageRating() == null || mechanic.getAverageRating() < request.getMinRating())) {
-            return false;
-        }
-
-        // Filter by verification status
-        if (request.getIsVerified() != null &&
-                !Objects.equals(mechanic.getIsVerified(), request.getIsVerified())) {
-            return false;
-        }
-
-        // Additional filters for emergency and mobile service (if not already filtered in query)
-        if (request.getEmergencyService() != null &&
-                !Objects.equals(mechanic.getEmergencyService(), request.getEmergencyService())) {
-            return false;
-        }
-
-        if (request.getMobileMechanic() != null &&
-                !Objects.equals(mechanic.getMobileMechanic(), request.getMobileMechanic())) {
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Convert MechanicProfile to ServiceProviderDTO
-     */
-    private ServiceProviderDTO convertToServiceProviderDTO(MechanicProfile mechanic, Double searchLat, Double searchLng) {
+    private ServiceProviderDTO convertToServiceProviderDTO(NearbyMechanic mechanic) {
         GeoJsonPoint point = mechanic.getLocation() != null ? mechanic.getLocation().getCoordinates() : null;
 
         return ServiceProviderDTO.builder()
@@ -267,15 +379,14 @@ public class ServiceProviderService {
                         .longitude(point != null ? point.getX() : null) // getX() = longitude
                         .address(mechanic.getLocation() != null ? mechanic.getLocation().getAddress() : null)
                         .build())
-                .services(mechanic.getServicesOffered() != null ?
-                        mechanic.getServicesOffered().stream()
-                                .map(ServiceOffered::getName)
-                                .collect(Collectors.toList()) : new ArrayList<>())
+                .services(mechanic.getServiceNames() != null ? mechanic.getServiceNames() : new ArrayList<>())
                 .rating(mechanic.getAverageRating() != null ? mechanic.getAverageRating() : 0.0)
                 .phoneNumber(mechanic.getContactPhone())
                 .email(mechanic.getContactEmail())
-                .workingHours(formatWorkingHours(mechanic.getWorkingHours()))
+                .workingHours(mechanic.getWorkingHours())
                 .description(mechanic.getDescription())
+                .distanceKm(mechanic.getDistance() != null
+                        ? Math.round(mechanic.getDistance() / 10.0) / 100.0 : null) // meters to km, 2 decimals
                 .build();
     }
 
@@ -321,7 +432,7 @@ public class ServiceProviderService {
     /**
      * Format working hours into a readable string
      */
-    private String formatWorkingHours(List<WorkingHours> workingHours) {
+    static String formatWorkingHours(List<WorkingHours> workingHours) {
         if (workingHours == null || workingHours.isEmpty()) {
             return "Hours not specified";
         }
@@ -357,49 +468,47 @@ public class ServiceProviderService {
     }
 
     /**
-     * Get sort comparator based on sort criteria
+     * Calculate distance between two points using Haversine formula
      */
-    private Comparator<ServiceProviderDTO> getSortComparator(String sortBy, String sortDirection) {
-        Comparator<ServiceProviderDTO> comparator;
-
-        switch (sortBy != null ? sortBy.toLowerCase() : "distance") {
-            case "rating":
-                comparator = Comparator.comparing(ServiceProviderDTO::getRating,
-                        Comparator.nullsLast(Double::compare));
-                break;
-            case "name":
-                comparator = Comparator.comparing(ServiceProviderDTO::getName,
-                        Comparator.nullsLast(String::compareToIgnoreCase));
-                break;
-            case "distance":
-            default:
-                // For distance sorting, we'll calculate distance in the controller or use a custom field
-                comparator = Comparator.comparing(ServiceProviderDTO::getName); // Fallback to name if distance not available
-                break;
+    public Double calculateDistance(Double lat1, Double lng1, Double lat2, Double lng2) {
+        if (lat1 == null || lng1 == null || lat2 == null || lng2 == null) {
+            return null;
         }
 
-        return "DESC".equalsIgnoreCase(sortDirection) ? comparator.reversed() : comparator;
+        return DistanceKernel.haversineKm(lat1, lng1, lat2, lng2);
     }
 
     /**
-     * Calculate distance between two points using Haversine formula
+     * Distances in km from each origin to each destination, computed in one pass over primitive arrays
      */
-    public Double calculateDistance(Double lat1, Double lng1, Double lat2, Double lng2) {
-        if (lat1 == null || lng1 == null || lat2 == null || lng2 == null) {
-            return null;
+    public DistanceMatrixDTO calculateDistanceMatrix(List<DistanceMatrixRequest.Point> origins,
+                                                     List<DistanceMatrixRequest.Point> destinations) {
+        double[] originLat = new double[origins.size()];
+        double[] originLng = new double[origins.size()];
+        for (int i = 0; i < origins.size(); i++) {
+            originLat[i] = origins.get(i).getLatitude();
+            originLng[i] = origins.get(i).getLongitude();
         }
 
-        final int R = 6371; // Earth's radius in kilometers
-
-        double latDistance = Math.toRadians(lat2 - lat1);
-        double lngDistance = Math.toRadians(lng2 - lng1);
+        double[] destLat = new double[destinations.size()];
+        double[] destLng = new double[destinations.size()];
+        for (int j = 0; j < destinations.size(); j++) {
+            destLat[j] = destinations.get(j).getLatitude();
+            destLng[j] = destinations.get(j).getLongitude();
+        }
 
-        double a = Math.sin(latDistance / 2) * Math.sin(latDistance / 2)
-                + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
-                * Math.sin(lngDistance / 2) * Math.sin(lngDistance / 2);
+        double[] flat = new double[origins.size() * destinations.size()];
+        DistanceKernel.haversineMatrix(originLat, originLng, destLat, destLng, flat);
 
-        double c = 2 * Math.atan2(Math.sqrt(a), Math.sqrt(1 - a));
+        double[][] distances = new double[origins.size()][];
+        for (int i = 0; i < origins.size(); i++) {
+            distances[i] = Arrays.copyOfRange(flat, i * destinations.size(), (i + 1) * destinations.size());
+        }
 
-        return R * c;
+        return DistanceMatrixDTO.builder()
+                .origins(origins.size())
+                .destinations(destinations.size())
+                .distancesKm(distances)
+                .build();
     }
 }
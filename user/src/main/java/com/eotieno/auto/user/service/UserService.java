@@ -27,15 +27,8 @@ public class UserService implements UserDetailsService {
                 .or(() -> userRepository.findByPhoneNumber(username))
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with identifier: " + username));
 
-        return org.springframework.security.core.userdetails.User.builder()
-                .username(user.getEmail()) // Using email as username
-                .password(user.getPassword())
-                .authorities(user.getAuthorities()) // Use the User entity's getAuthorities() method
-                .accountExpired(false)
-                .accountLocked(false)
-                .credentialsExpired(false)
-                .disabled(false)
-                .build();
+        // The entity is the UserDetails (email as username), so login can reuse it as the authenticated principal
+        return user;
     }
 
     public void validateUserRegistration(RegisterRequest request) {
@@ -0,0 +1,113 @@
+package com.eotieno.auto.user.model.mechanic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class WeeklyAvailabilityTest {
+
+    // 2025-06-02 is a Monday
+    private static final LocalDateTime MONDAY = LocalDateTime.of(2025, 6, 2, 0, 0);
+
+    @Test
+    void slotBitsFollowBinDataBitNumbering() {
+        byte[] slots = WeeklyAvailability.of(List.of(
+                hours("Monday", "00:00", "00:15"),
+                hours("Tuesday", "02:15", "02:30")));
+
+        // $bitsAllSet position p is bit p % 8 of byte p / 8, least significant bit first
+        byte[] expected = new byte[WeeklyAvailability.SLOTS_PER_WEEK / 8];
+        expected[0] = 0b0000_0001; // slot 0, Monday 00:00
+        expected[13] = 0b0000_0010; // slot 105 = 96 + 9, Tuesday 02:15
+        assertArrayEquals(expected, slots);
+
+        assertEquals(0, WeeklyAvailability.slotOf(MONDAY));
+        assertEquals(105, WeeklyAvailability.slotOf(MONDAY.plusDays(1).withHour(2).withMinute(20)));
+        assertTrue(WeeklyAvailability.isOpen(slots, 105));
+        assertFalse(WeeklyAvailability.isOpen(slots, 104));
+    }
+
+    @Test
+    void offGridHoursRoundOutwardToWholeSlots() {
+        byte[] slots = WeeklyAvailability.of(List.of(hours("Wed", "08:10", "17:50")));
+        LocalDateTime wednesday = MONDAY.plusDays(2);
+
+        assertFalse(openAt(slots, wednesday.withHour(7).withMinute(59)));
+        assertTrue(openAt(slots, wednesday.withHour(8).withMinute(0)));
+        assertTrue(openAt(slots, wednesday.withHour(8).withMinute(12)));
+        assertTrue(openAt(slots, wednesday.withHour(17).withMinute(55)));
+        assertFalse(openAt(slots, wednesday.withHour(18).withMinute(0)));
+    }
+
+    @Test
+    void hoursPastMidnightSpillIntoTheNextDay() {
+        byte[] slots = WeeklyAvailability.of(List.of(
+                hours("Friday", "22:00", "02:00"),
+                hours("Sunday", "23:00", "01:00")));
+        LocalDateTime friday = MONDAY.plusDays(4);
+
+        assertFalse(openAt(slots, friday.withHour(21).withMinute(45)));
+        assertTrue(openAt(slots, friday.withHour(23).withMinute(30)));
+        assertTrue(openAt(slots, friday.plusDays(1).withHour(1).withMinute(45)));
+        assertFalse(openAt(slots, friday.plusDays(1).withHour(2).withMinute(0)));
+
+        // Sunday night wraps round to the start of the week
+        assertTrue(openAt(slots, MONDAY.plusDays(6).withHour(23).withMinute(30)));
+        assertTrue(openAt(slots, MONDAY.withHour(0).withMinute(45)));
+        assertFalse(openAt(slots, MONDAY.withHour(1).withMinute(0)));
+    }
+
+    @Test
+    void dayNamesAreMatchedOnTheirFirstThreeLetters() {
+        byte[] slots = WeeklyAvailability.of(List.of(
+                hours("MON", "09:00", "10:00"),
+                hours(" thursday ", "09:00", "10:00"),
+                hours("sat", "09:00", "10:00")));
+
+        assertTrue(openAt(slots, MONDAY.withHour(9)));
+        assertTrue(openAt(slots, MONDAY.plusDays(3).withHour(9)));
+        assertTrue(openAt(slots, MONDAY.plusDays(5).withHour(9)));
+        assertFalse(openAt(slots, MONDAY.plusDays(1).withHour(9)));
+    }
+
+    @Test
+    void closedUnknownAndMalformedEntriesAreSkipped() {
+        WorkingHours closed = hours("Tuesday", "09:00", "10:00");
+        closed.setIsOpen(false);
+
+        byte[] slots = WeeklyAvailability.of(List.of(
+                closed,
+                hours("Mo", "09:00", "10:00"),
+                hours("Someday", "09:00", "10:00"),
+                hours(null, "09:00", "10:00"),
+                hours("Wednesday", "9am", "10:00"),
+                hours("Thursday", "09:00", "25:00")));
+
+        assertArrayEquals(new byte[WeeklyAvailability.SLOTS_PER_WEEK / 8], slots);
+        assertArrayEquals(new byte[WeeklyAvailability.SLOTS_PER_WEEK / 8], WeeklyAvailability.of(null));
+    }
+
+    @Test
+    void missingTimesMeanOpenAllDay() {
+        byte[] slots = WeeklyAvailability.of(List.of(hours("Sunday", null, null)));
+        LocalDateTime sunday = MONDAY.plusDays(6);
+
+        assertTrue(openAt(slots, sunday));
+        assertTrue(openAt(slots, sunday.withHour(23).withMinute(50)));
+        assertFalse(openAt(slots, MONDAY));
+    }
+
+    private static boolean openAt(byte[] slots, LocalDateTime time) {
+        return WeeklyAvailability.isOpen(slots, WeeklyAvailability.slotOf(time));
+    }
+
+    private static WorkingHours hours(String day, String open, String close) {
+        return new WorkingHours(day, open, close, true);
+    }
+}
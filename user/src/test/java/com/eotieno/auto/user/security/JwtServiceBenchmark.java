@@ -0,0 +1,81 @@
+package com.eotieno.auto.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.SecretKey;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tokens verified per second by the authentication filter's path, before and after the shared parser.
+ * perCallParser reproduces the old flow: extractUsername plus isTokenValid, i.e. three parses, each
+ * decoding the secret and building a new parser. sharedParser is the current flow: one parse with the
+ * JwtService parser, then the claims are checked. Run the main method from the test classpath (after mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "c2VjcmV0LWtleS1mb3ItdGhlLWp3dC1iZW5jaG1hcmstMzItYnl0ZXMh";
+
+    private JwtService jwtService;
+    private UserDetails userDetails;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService();
+        ReflectionTestUtils.setField(jwtService, "SECRET_KEY", SECRET);
+        jwtService.init();
+
+        userDetails = User.withUsername("alice@example.com").password("unused").roles("CAR_OWNER").build();
+        token = Jwts.builder()
+                .subject(userDetails.getUsername())
+                .issuedAt(new Date())
+                .expiration(new Date(System.currentTimeMillis() + JwtService.ACCESS_TOKEN_TTL.toMillis()))
+                .signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET)), Jwts.SIG.HS256)
+                .compact();
+    }
+
+    @Benchmark
+    public boolean perCallParser() {
+        String username = parseWithNewParser(token).getSubject();
+        return username.equals(userDetails.getUsername())
+                && parseWithNewParser(token).getSubject().equals(userDetails.getUsername())
+                && !parseWithNewParser(token).getExpiration().before(new Date());
+    }
+
+    @Benchmark
+    public boolean sharedParser() {
+        return jwtService.isTokenValid(jwtService.extractAllClaims(token), userDetails);
+    }
+
+    private static Claims parseWithNewParser(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser()
+                .verifyWith(key)
+                .build()
+                .parseSignedClaims(token)
+                .getPayload();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(JwtServiceBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,63 @@
+package com.eotieno.auto.user.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenRevocationServiceTest {
+
+    private static final String SUBJECT = "alice";
+    // 250 ms into a second, so tokens just before and after it share iat
+    private static final Instant CUTOFF = Instant.parse("2025-06-02T09:00:00.250Z");
+
+    private final TokenRevocationService revocations = new TokenRevocationService();
+
+    @Test
+    void tokenIssuedLaterInTheSameSecondIsAccepted() {
+        revocations.revokeTokensIssuedBefore(SUBJECT, CUTOFF);
+
+        assertFalse(revocations.isRevoked(claims(SUBJECT, CUTOFF.plusMillis(1))));
+        assertFalse(revocations.isRevoked(claims(SUBJECT, CUTOFF)));
+    }
+
+    @Test
+    void tokenIssuedEarlierInTheSameSecondIsRejected() {
+        revocations.revokeTokensIssuedBefore(SUBJECT, CUTOFF);
+
+        assertTrue(revocations.isRevoked(claims(SUBJECT, CUTOFF.minusMillis(1))));
+        assertTrue(revocations.isRevoked(claims(SUBJECT, CUTOFF.minusSeconds(60))));
+    }
+
+    @Test
+    void tokenWithoutMillisecondClaimFromTheCutoffSecondIsRejected() {
+        revocations.revokeTokensIssuedBefore(SUBJECT, CUTOFF);
+
+        Claims legacy = Jwts.claims().subject(SUBJECT).issuedAt(Date.from(CUTOFF.plusMillis(500))).build();
+        Claims nextSecond = Jwts.claims().subject(SUBJECT).issuedAt(Date.from(CUTOFF.plusSeconds(1))).build();
+
+        assertTrue(revocations.isRevoked(legacy));
+        assertFalse(revocations.isRevoked(nextSecond));
+    }
+
+    @Test
+    void otherSubjectsAreUnaffected() {
+        revocations.revokeTokensIssuedBefore(SUBJECT, CUTOFF);
+
+        assertFalse(revocations.isRevoked(claims("bob", CUTOFF.minusSeconds(60))));
+    }
+
+    // Claims as JwtService issues them: iat in whole seconds plus the millisecond claim
+    private static Claims claims(String subject, Instant issuedAt) {
+        return Jwts.claims()
+                .subject(subject)
+                .issuedAt(Date.from(issuedAt))
+                .add(JwtService.ISSUED_AT_MS_CLAIM, issuedAt.toEpochMilli())
+                .build();
+    }
+}
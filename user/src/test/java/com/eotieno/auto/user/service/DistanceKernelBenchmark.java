@@ -0,0 +1,72 @@
+package com.eotieno.auto.user.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Distance matrix throughput: haversineMatrix against calling haversineKm for every pair.
+ * Run the main method from the test classpath (after mvn test-compile).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceKernelBenchmark {
+
+    // Points per side: the matrix has points * points cells
+    @Param({"10", "100"})
+    private int points;
+
+    private double[] originLat;
+    private double[] originLng;
+    private double[] destLat;
+    private double[] destLng;
+    private double[] out;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        originLat = new double[points];
+        originLng = new double[points];
+        destLat = new double[points];
+        destLng = new double[points];
+        for (int i = 0; i < points; i++) {
+            // Around Nairobi
+            originLat[i] = -1.5 + random.nextDouble();
+            originLng[i] = 36.5 + random.nextDouble();
+            destLat[i] = -1.5 + random.nextDouble();
+            destLng[i] = 36.5 + random.nextDouble();
+        }
+        out = new double[points * points];
+    }
+
+    @Benchmark
+    public void perPair(Blackhole blackhole) {
+        for (int i = 0; i < points; i++) {
+            for (int j = 0; j < points; j++) {
+                out[i * points + j] = DistanceKernel.haversineKm(originLat[i], originLng[i], destLat[j], destLng[j]);
+            }
+        }
+        blackhole.consume(out);
+    }
+
+    @Benchmark
+    public void matrix(Blackhole blackhole) {
+        DistanceKernel.haversineMatrix(originLat, originLng, destLat, destLng, out);
+        blackhole.consume(out);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DistanceKernelBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
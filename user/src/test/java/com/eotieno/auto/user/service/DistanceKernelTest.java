@@ -0,0 +1,51 @@
+package com.eotieno.auto.user.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DistanceKernelTest {
+
+    @Test
+    void matrixMatchesPerPairDistanceInEveryCell() {
+        Random random = new Random(7);
+        int origins = 13;
+        int destinations = 29;
+        double[] originLat = new double[origins];
+        double[] originLng = new double[origins];
+        double[] destLat = new double[destinations];
+        double[] destLng = new double[destinations];
+        for (int i = 0; i < origins; i++) {
+            originLat[i] = random.nextDouble() * 180 - 90;
+            originLng[i] = random.nextDouble() * 360 - 180;
+        }
+        for (int j = 0; j < destinations; j++) {
+            destLat[j] = random.nextDouble() * 180 - 90;
+            destLng[j] = random.nextDouble() * 360 - 180;
+        }
+        // Antipodal and identical points exercise the clamp and the zero distance
+        destLat[0] = -originLat[0];
+        destLng[0] = originLng[0] + 180;
+        destLat[1] = originLat[1];
+        destLng[1] = originLng[1];
+
+        double[] out = new double[origins * destinations];
+        DistanceKernel.haversineMatrix(originLat, originLng, destLat, destLng, out);
+
+        for (int i = 0; i < origins; i++) {
+            for (int j = 0; j < destinations; j++) {
+                double expected = DistanceKernel.haversineKm(originLat[i], originLng[i], destLat[j], destLng[j]);
+                assertEquals(expected, out[i * destinations + j], 1e-6,
+                        "origin " + i + ", destination " + j);
+            }
+        }
+    }
+
+    @Test
+    void knownDistance() {
+        // Nairobi CBD to Jomo Kenyatta International Airport
+        assertEquals(12.82, DistanceKernel.haversineKm(-1.2864, 36.8172, -1.3192, 36.9278), 0.01);
+    }
+}
@@ -0,0 +1,181 @@
+package com.eotieno.auto.user.service;
+
+import com.eotieno.auto.user.exceptions.InvalidRefreshTokenException;
+import com.eotieno.auto.user.model.RefreshToken;
+import com.eotieno.auto.user.model.User;
+import com.eotieno.auto.user.repository.RefreshTokenRepository;
+import com.eotieno.auto.user.repository.RoleRepository;
+import com.eotieno.auto.user.repository.UserRepository;
+import com.eotieno.auto.user.security.JwtService;
+import com.eotieno.auto.user.security.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Rotation against an in-memory stand-in for the repository that honours the conditional revoke
+ */
+class RefreshTokenServiceTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long OTHER_USER_ID = 8L;
+
+    private final Map<String, RefreshToken> tokensByHash = new HashMap<>();
+    private final AtomicLong ids = new AtomicLong();
+
+    private RefreshTokenRepository refreshTokenRepository;
+    private RefreshTokenService refreshTokenService;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenRepository = mock(RefreshTokenRepository.class);
+        when(refreshTokenRepository.save(any(RefreshToken.class))).thenAnswer(invocation -> {
+            RefreshToken token = invocation.getArgument(0);
+            token.setId(ids.incrementAndGet());
+            tokensByHash.put(token.getTokenHash(), token);
+            return token;
+        });
+        when(refreshTokenRepository.findByTokenHash(anyString()))
+                .thenAnswer(invocation -> Optional.ofNullable(tokensByHash.get(invocation.<String>getArgument(0))));
+        when(refreshTokenRepository.revoke(anyLong(), any(Instant.class))).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return (int) tokensByHash.values().stream()
+                    .filter(token -> token.getId().equals(id) && token.getRevokedAt() == null)
+                    .peek(token -> token.setRevokedAt(invocation.getArgument(1)))
+                    .count();
+        });
+        when(refreshTokenRepository.revokeAllForUser(anyLong(), any(Instant.class))).thenAnswer(invocation -> {
+            Long userId = invocation.getArgument(0);
+            return (int) tokensByHash.values().stream()
+                    .filter(token -> token.getUserId().equals(userId) && token.getRevokedAt() == null)
+                    .peek(token -> token.setRevokedAt(invocation.getArgument(1)))
+                    .count();
+        });
+
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository);
+        ReflectionTestUtils.setField(refreshTokenService, "ttlDays", 30L);
+        ReflectionTestUtils.setField(refreshTokenService, "reuseGraceSeconds", 10L);
+    }
+
+    @Test
+    void tokenCanBeSpentOnlyOnce() {
+        String token = refreshTokenService.issue(USER_ID).token();
+
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(token);
+
+        assertEquals(USER_ID, rotation.userId());
+        assertNotEquals(token, rotation.next().token());
+        assertNotNull(stored(token).getRevokedAt());
+        assertNull(stored(rotation.next().token()).getRevokedAt());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+    }
+
+    @Test
+    void reuseAfterTheGraceWindowRevokesEveryTokenOfTheUser() {
+        String stolen = refreshTokenService.issue(USER_ID).token();
+        String otherDevice = refreshTokenService.issue(USER_ID).token();
+        String otherUser = refreshTokenService.issue(OTHER_USER_ID).token();
+        String successor = refreshTokenService.rotate(stolen).next().token();
+        stored(stolen).setRevokedAt(Instant.now().minusSeconds(11));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(stolen));
+
+        verify(refreshTokenRepository).revokeAllForUser(eq(USER_ID), any(Instant.class));
+        assertNotNull(stored(successor).getRevokedAt());
+        assertNotNull(stored(otherDevice).getRevokedAt());
+        assertNull(stored(otherUser).getRevokedAt());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(successor));
+    }
+
+    @Test
+    void reuseWithinTheGraceWindowIsRefusedWithoutRevokingTheSuccessor() {
+        String token = refreshTokenService.issue(USER_ID).token();
+        String successor = refreshTokenService.rotate(token).next().token();
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+
+        verify(refreshTokenRepository, never()).revokeAllForUser(anyLong(), any(Instant.class));
+        assertEquals(USER_ID, refreshTokenService.rotate(successor).userId());
+    }
+
+    @Test
+    void concurrentRefreshThatLosesTheRaceIsNotTreatedAsTheft() {
+        String token = refreshTokenService.issue(USER_ID).token();
+        // Both requests read the row before either revoked it
+        RefreshToken current = stored(token);
+        RefreshToken staleRead = RefreshToken.builder()
+                .id(current.getId())
+                .userId(current.getUserId())
+                .tokenHash(current.getTokenHash())
+                .createdAt(current.getCreatedAt())
+                .expiresAt(current.getExpiresAt())
+                .build();
+        String successor = refreshTokenService.rotate(token).next().token();
+        when(refreshTokenRepository.findByTokenHash(staleRead.getTokenHash())).thenReturn(Optional.of(staleRead));
+
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+
+        verify(refreshTokenRepository, never()).revokeAllForUser(anyLong(), any(Instant.class));
+        assertNull(stored(successor).getRevokedAt());
+    }
+
+    @Test
+    void expiredTokenIsRejectedAndNotRotated() {
+        String token = refreshTokenService.issue(USER_ID).token();
+        stored(token).setExpiresAt(Instant.now().minus(Duration.ofMinutes(1)));
+
+        InvalidRefreshTokenException error =
+                assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate(token));
+
+        assertEquals("Refresh token has expired", error.getMessage());
+        assertNull(stored(token).getRevokedAt());
+        assertEquals(1, tokensByHash.size());
+    }
+
+    @Test
+    void unknownTokenIsRejected() {
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.rotate("never-issued"));
+    }
+
+    @Test
+    void refreshNeverTouchesThePasswordEncoder() {
+        UserRepository userRepository = mock(UserRepository.class);
+        PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+        AuthenticationManager authenticationManager = mock(AuthenticationManager.class);
+        JwtService jwtService = mock(JwtService.class);
+        User user = User.builder().id(USER_ID).email("jane@example.com").roles(Set.of()).build();
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(jwtService.issueToken(user)).thenReturn(new JwtService.IssuedToken("access", Instant.now()));
+        AuthenticationService authenticationService = new AuthenticationService(userRepository,
+                mock(RoleRepository.class), passwordEncoder, jwtService, authenticationManager,
+                refreshTokenService, mock(TokenRevocationService.class));
+
+        String token = refreshTokenService.issue(USER_ID).token();
+        authenticationService.refresh(token);
+
+        verifyNoInteractions(passwordEncoder, authenticationManager);
+    }
+
+    private RefreshToken stored(String token) {
+        String hash = ReflectionTestUtils.invokeMethod(RefreshTokenService.class, "hash", token);
+        return Optional.ofNullable(tokensByHash.get(hash)).orElseThrow();
+    }
+}
@@ -1,6 +1,7 @@
 package com.eotieno.auto.vehicle.config;
 
 import com.eotieno.auto.vehicle.service.UserServiceClient;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -13,6 +14,7 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
 @Component
 @RequiredArgsConstructor
@@ -48,8 +50,10 @@ public class AuthenticationFilter extends OncePerRequestFilter {
         if (authHeader != null && authHeader.startsWith("Bearer ")) {
             try {
                 String token = authHeader.substring(7);
-                if (jwtTokenUtil.isTokenValid(token)) {
-                    String username = jwtTokenUtil.extractUsername(token);
+                // One verification per request, answered from the verifier's cache for repeat tokens
+                Optional<Claims> claims = jwtTokenUtil.validClaims(token);
+                if (claims.isPresent()) {
+                    String username = claims.get().getSubject();
 
                     UserDetails userDetails = new org.springframework.security.core.userdetails.User(
                             username, "", java.util.List.of()
@@ -2,9 +2,11 @@ package com.eotieno.auto.vehicle.config;
 
 import com.eotieno.auto.vehicle.dto.AuthRequest;
 import com.eotieno.auto.vehicle.dto.AuthResponse;
+import com.eotieno.auto.vehicle.dto.RefreshTokenRequest;
 import com.eotieno.auto.vehicle.service.UserServiceClient;
 import feign.RequestInterceptor;
 import lombok.Synchronized;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -13,11 +15,14 @@ import org.springframework.context.annotation.Configuration;
 import java.time.Instant;
 
 @Configuration
+@Slf4j
 public class FeignConfig {
     @Autowired
     UserServiceClient userService;
     private String cachedToken;
     private Instant tokenExpiry;
+    private String cachedRefreshToken;
+    private Instant refreshTokenExpiry;
 
     @Value("${service.email}")
     private String serviceEmail;
@@ -36,14 +41,34 @@ public class FeignConfig {
 
     @Synchronized
     private void refreshToken() {
-        AuthRequest request = AuthRequest.builder()
-                .identifier(serviceEmail)
-                .password(servicePassword)
-                .build();
+        if (cachedToken != null && Instant.now().isBefore(tokenExpiry)) {
+            return; // another thread already renewed it
+        }
+
+        AuthResponse response = null;
+        // Prefer the refresh token: it skips the password check on the user service
+        if (cachedRefreshToken != null && Instant.now().isBefore(refreshTokenExpiry)) {
+            try {
+                response = userService.refresh(RefreshTokenRequest.builder()
+                        .refreshToken(cachedRefreshToken)
+                        .build());
+            } catch (Exception e) {
+                log.warn("Service token refresh failed, logging in again: {}", e.getMessage());
+            }
+        }
+        if (response == null) {
+            AuthRequest request = AuthRequest.builder()
+                    .identifier(serviceEmail)
+                    .password(servicePassword)
+                    .build();
+            response = userService.authenticate(request);
+        }
 
-        AuthResponse response = userService.authenticate(request);
         this.cachedToken = response.getToken();
         this.tokenExpiry = response.getExpiry().minusSeconds(60); // Refresh 1min before expiry
+        this.cachedRefreshToken = response.getRefreshToken();
+        this.refreshTokenExpiry = response.getRefreshExpiry() != null
+                ? response.getRefreshExpiry().minusSeconds(60) : Instant.MIN;
     }
 
 //    @Value("${service.api.key}")
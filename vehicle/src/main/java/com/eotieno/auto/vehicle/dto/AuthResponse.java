@@ -15,4 +15,6 @@ import java.time.Instant;
 public class AuthResponse {
     private String token;  // JWT token
     private Instant expiry;
+    private String refreshToken;
+    private Instant refreshExpiry;
 }
@@ -2,6 +2,7 @@ package com.eotieno.auto.vehicle.service;
 
 import com.eotieno.auto.vehicle.dto.AuthRequest;
 import com.eotieno.auto.vehicle.dto.AuthResponse;
+import com.eotieno.auto.vehicle.dto.RefreshTokenRequest;
 import com.eotieno.auto.vehicle.dto.UserDto;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.web.bind.annotation.*;
@@ -14,6 +15,10 @@ public interface UserServiceClient {
     @PostMapping("/api/auth/login")
     AuthResponse authenticate(@RequestBody AuthRequest request);
 
+    // Rotates the refresh token; no password check on the user service side
+    @PostMapping("/api/auth/refresh")
+    AuthResponse refresh(@RequestBody RefreshTokenRequest request);
+
     // Check if user exists
     @GetMapping("/api/users/{userId}/exists")
     boolean userExists(@PathVariable Long userId);